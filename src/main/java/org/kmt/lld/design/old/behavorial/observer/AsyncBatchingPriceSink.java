@@ -0,0 +1,237 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * PriceSink that keeps all formatting and I/O off the publishing thread.
+ *
+ * Writing a record only copies the observer id and the three prices into preallocated primitive arrays; no String
+ * is built and nothing is allocated. A background thread takes everything queued in one go, formats it straight into
+ * a reusable direct ByteBuffer and hands whole batches to a channel (a FileChannel, or stdout), so output costs a
+ * write call per batch instead of per record.
+ *
+ * If the writer falls so far behind that the queue is full, new records are dropped and counted rather than making
+ * the publisher wait for I/O.
+ *
+ * If writing to the channel fails, the writer thread stops and every later record is dropped and counted as well; the
+ * publisher never sees the error. It is available from {@link #failure()}, and {@link #close()} throws it.
+ */
+public class AsyncBatchingPriceSink implements PriceSink, AutoCloseable {
+
+    private static final int RECORD_MAX_BYTES = 128;
+
+    private final WritableByteChannel channel;
+    private final boolean closeChannel;
+    private final int mask;
+    private final int[] observerIds;
+    private final double[] ibmPrices;
+    private final double[] applePrices;
+    private final double[] googlePrices;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(64 * 1024);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Thread writer;
+
+    // Guarded by lock
+    private long head;
+    private long tail;
+    private long dropped;
+
+    private volatile boolean writerParked;
+    private volatile boolean running = true;
+    // Set by the writer thread when the channel fails
+    private volatile IOException failure;
+
+    /**
+     * Writes to stdout without going through System.out.
+     */
+    public static AsyncBatchingPriceSink stdout(int capacity) {
+        return new AsyncBatchingPriceSink(new FileOutputStream(FileDescriptor.out).getChannel(), capacity, false);
+    }
+
+    /**
+     * @param capacity records that can be queued; rounded up to a power of two
+     * @param closeChannel whether closing the sink also closes the channel
+     */
+    public AsyncBatchingPriceSink(WritableByteChannel channel, int capacity, boolean closeChannel) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.channel = channel;
+        this.closeChannel = closeChannel;
+        this.mask = size - 1;
+        this.observerIds = new int[size];
+        this.ibmPrices = new double[size];
+        this.applePrices = new double[size];
+        this.googlePrices = new double[size];
+        this.writer = new Thread(this::drain, "price-sink-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void write(int observerId, double ibmPrice, double applePrice, double googlePrice) {
+        lock.lock();
+        try {
+            if (tail - head > mask || failure != null) {
+                dropped++;
+                return;
+            }
+            int slot = (int) tail & mask;
+            observerIds[slot] = observerId;
+            ibmPrices[slot] = ibmPrice;
+            applePrices[slot] = applePrice;
+            googlePrices[slot] = googlePrice;
+            tail++;
+        } finally {
+            lock.unlock();
+        }
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    public long dropped() {
+        lock.lock();
+        try {
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The error that stopped the writer, or null while it is running.
+     */
+    public IOException failure() {
+        return failure;
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                long from;
+                long to;
+                lock.lock();
+                try {
+                    from = head;
+                    to = tail;
+                } finally {
+                    lock.unlock();
+                }
+                if (from == to) {
+                    if (!running) {
+                        return;
+                    }
+                    writerParked = true;
+                    // Re-check after announcing, so a record written meanwhile is never missed for long
+                    LockSupport.parkNanos(1_000_000);
+                    writerParked = false;
+                    continue;
+                }
+                // Slots [from, to) cannot be overwritten until head moves past them
+                for (long record = from; record < to; record++) {
+                    if (out.remaining() < RECORD_MAX_BYTES) {
+                        flush();
+                    }
+                    format((int) record & mask);
+                }
+                flush();
+                lock.lock();
+                try {
+                    head = to;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    // Same layout as StockSubscriber used to print, prices with two decimals
+    private void format(int slot) {
+        putAscii("ObserverId: ");
+        putLong(observerIds[slot]);
+        putAscii("\nibm: ");
+        putPrice(ibmPrices[slot]);
+        putAscii("\napple: ");
+        putPrice(applePrices[slot]);
+        putAscii("\ngoogle: ");
+        putPrice(googlePrices[slot]);
+        putAscii("\n\n");
+    }
+
+    private void putPrice(double price) {
+        if (Double.isNaN(price) || Double.isInfinite(price) || Math.abs(price) >= 1e15) {
+            putAscii(Double.toString(price)); // rare enough to allocate
+            return;
+        }
+        long cents = Math.round(price * 100);
+        if (cents < 0) {
+            out.put((byte) '-');
+            cents = -cents;
+        }
+        putLong(cents / 100);
+        out.put((byte) '.');
+        out.put((byte) ('0' + cents % 100 / 10));
+        out.put((byte) ('0' + cents % 10));
+    }
+
+    private void putLong(long value) {
+        if (value < 0) {
+            out.put((byte) '-');
+            value = -value;
+        }
+        int start = out.position();
+        do {
+            out.put((byte) ('0' + value % 10));
+            value /= 10;
+        } while (value > 0);
+        // Digits were written least significant first
+        for (int i = start, j = out.position() - 1; i < j; i++, j--) {
+            byte digit = out.get(i);
+            out.put(i, out.get(j));
+            out.put(j, digit);
+        }
+    }
+
+    private void putAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            out.put((byte) text.charAt(i));
+        }
+    }
+
+    private void flush() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    /**
+     * Writes everything still queued, then stops the writer thread.
+     *
+     * @throws IOException the error that stopped the writer, if writing failed
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (closeChannel) {
+            channel.close();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
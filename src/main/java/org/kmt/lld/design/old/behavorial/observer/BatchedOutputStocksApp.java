@@ -0,0 +1,34 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class BatchedOutputStocksApp {
+    public static void main(String[] args) throws IOException {
+        Path file = Files.createTempFile("stock-prices", ".log");
+        int updates = 10_000;
+
+        // Room for the whole burst (updates x subscribers), so nothing is dropped while the writer catches up
+        try (AsyncBatchingPriceSink sink = new AsyncBatchingPriceSink(
+                FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), 1 << 17, true)) {
+            StockPublisher stockPublisher = new StockPublisher();
+            for (int i = 0; i < 10; i++) {
+                new StockSubscriber(stockPublisher, sink);
+            }
+
+            // The publisher only enqueues; formatting and file writes happen on the sink's thread
+            long start = System.nanoTime();
+            for (int i = 0; i < updates; i++) {
+                stockPublisher.setIbmPrice(100 + i % 100 / 100.0);
+            }
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("Published " + updates + " updates to 10 subscribers in " + elapsedMillis + " ms, "
+                    + sink.dropped() + " records dropped");
+        }
+        System.out.println("Wrote " + Files.size(file) + " bytes to " + file);
+        Files.delete(file);
+    }
+}
@@ -0,0 +1,27 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import java.util.concurrent.TimeUnit;
+
+public class ConflatedStocksApp {
+    public static void main(String[] args) throws InterruptedException {
+        // Batch boundary: three price changes, one notification with the final prices
+        ConflatingStockPublisher batchPublisher = new ConflatingStockPublisher();
+        new StockSubscriber(batchPublisher);
+        batchPublisher.batch(() -> {
+            batchPublisher.setIbmPrice(10);
+            batchPublisher.setApplePrice(20);
+            batchPublisher.setGooglePrice(30);
+        });
+
+        // Tick window: a burst of changes within 500 ms is delivered as one snapshot
+        try (ConflatingStockPublisher windowPublisher = new ConflatingStockPublisher(500, TimeUnit.MILLISECONDS)) {
+            new StockSubscriber(windowPublisher);
+            for (int i = 0; i < 1000; i++) {
+                windowPublisher.setIbmPrice(197 + i / 100.0);
+                windowPublisher.setApplePrice(677 + i / 100.0);
+                windowPublisher.setGooglePrice(676 + i / 100.0);
+            }
+            Thread.sleep(600);
+        }
+    }
+}
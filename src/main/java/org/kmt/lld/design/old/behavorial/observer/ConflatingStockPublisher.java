@@ -0,0 +1,91 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A StockPublisher that merges price changes instead of fanning out on every setter call.
+ *
+ * Setting a price only marks the publisher dirty. Subscribers get one snapshot of all three prices per tick window
+ * (when created with a window) and/or at the end of every batch (see {@link #batch(Runnable)}). Three price changes
+ * in one window cost one fan-out, and subscribers never see the intermediate states.
+ */
+public class ConflatingStockPublisher extends StockPublisher implements AutoCloseable {
+
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    // Per thread, so that a batch only holds back the changes made inside it
+    private final ThreadLocal<int[]> batchDepth = ThreadLocal.withInitial(() -> new int[1]);
+    private final Object flushLock = new Object();
+    private final ScheduledExecutorService ticker;
+
+    /**
+     * Conflates only within explicit batches; outside a batch every change is published right away.
+     */
+    ConflatingStockPublisher() {
+        this.ticker = null;
+    }
+
+    /**
+     * Publishes at most one snapshot per window, plus one at the end of every batch.
+     */
+    ConflatingStockPublisher(long window, TimeUnit unit) {
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::flush, window, window, unit);
+    }
+
+    /**
+     * Runs the updates as one batch: subscribers are notified once, after the last update, with the final prices.
+     * Batches may be nested; only the outermost one publishes.
+     *
+     * A batch covers the updates made by the calling thread. A change published meanwhile from another thread
+     * publishes the prices as they are at that moment, which can include some of the batch's updates.
+     */
+    public void batch(Runnable updates) {
+        int[] depth = batchDepth.get();
+        depth[0]++;
+        try {
+            updates.run();
+        } finally {
+            if (--depth[0] == 0) {
+                flush();
+            }
+        }
+    }
+
+    @Override
+    public void notifySubscribers() {
+        dirty.set(true);
+        if (ticker == null && batchDepth.get()[0] == 0) {
+            flush();
+        }
+    }
+
+    /**
+     * Publishes the current prices if anything changed since the last publish.
+     */
+    public void flush() {
+        // Serialized so that a window flush and a batch flush never fan out at the same time or out of order
+        synchronized (flushLock) {
+            if (dirty.compareAndSet(true, false)) {
+                super.notifySubscribers();
+            }
+        }
+    }
+
+    /**
+     * Stops the window timer and publishes whatever is still pending.
+     */
+    @Override
+    public void close() {
+        if (ticker != null) {
+            ticker.shutdown();
+        }
+        flush();
+    }
+}
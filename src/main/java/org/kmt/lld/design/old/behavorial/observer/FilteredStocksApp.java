@@ -0,0 +1,34 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+public class FilteredStocksApp {
+    public static void main(String[] args) throws InterruptedException {
+        FilteringStockPublisher stockPublisher = new FilteringStockPublisher();
+
+        // Printed only when IBM crosses 200 in either direction
+        new StockSubscriber(stockPublisher, PriceFilter.crosses(StockPublisher.IBM, 200));
+
+        // 1000 subscribers that only want moves of more than 1%, and 1000 that want every change
+        LongAdder filteredUpdates = new LongAdder();
+        LongAdder unfilteredUpdates = new LongAdder();
+        for (int i = 0; i < 1000; i++) {
+            stockPublisher.register((ibm, apple, google) -> filteredUpdates.increment(),
+                    PriceFilter.movedBy(PriceFilter.ALL_FIELDS, 0.01));
+            stockPublisher.register((ibm, apple, google) -> unfilteredUpdates.increment());
+        }
+
+        MarketDataLoadGenerator.Report report = MarketDataLoadGenerator.builder()
+                .startPrices(199.00, 677.60, 676.40) // IBM, APPLE, GOOGLE
+                .threads(3)
+                .ticksPerSecond(2_000)
+                .volatility(0.5)
+                .build()
+                .run(stockPublisher::setPrice, Duration.ofSeconds(3));
+
+        System.out.println(report.ticks() + " ticks, " + stockPublisher.filterGroupCount() + " filter groups");
+        System.out.println("Unfiltered subscriber callbacks:  " + unfilteredUpdates.sum());
+        System.out.println("Moved-by-1% subscriber callbacks: " + filteredUpdates.sum());
+    }
+}
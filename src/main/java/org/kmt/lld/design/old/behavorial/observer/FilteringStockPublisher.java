@@ -0,0 +1,128 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import org.kmt.lld.design.patterns.behavorial.observer.SlotSubscriberRegistry;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A StockPublisher whose subscribers can ask to be notified only about the changes they care about.
+ *
+ * A subscription registered with a {@link PriceFilter} is evaluated on the publisher's side, before any subscriber
+ * code runs. Subscribers with equal filters form a group: the filter is evaluated once per price change for the whole
+ * group and, when it passes, every member is notified. A group remembers the prices it was last notified with, which
+ * is what delta and threshold filters compare against; a subscriber joining an existing group starts from the group's
+ * last delivery.
+ *
+ * Subscribers registered with plain {@link #register(Subscriber)} are notified on every change, as before.
+ */
+public class FilteringStockPublisher extends StockPublisher {
+
+    private static final FilterGroup[] NO_GROUPS = new FilterGroup[0];
+
+    private final Object groupsLock = new Object();
+    // Guarded by groupsLock
+    private final Map<PriceFilter, FilterGroup> groupsByFilter = new HashMap<>();
+    // Never mutated once published; replaced under groupsLock
+    private volatile FilterGroup[] groups = NO_GROUPS;
+
+    FilteringStockPublisher() {
+    }
+
+    /**
+     * Registers the subscriber so that it is only notified when the filter passes.
+     */
+    public Subscription register(Subscriber s, PriceFilter filter) {
+        FilterGroup group;
+        SlotSubscriberRegistry.Handle handle;
+        synchronized (groupsLock) {
+            group = groupsByFilter.get(filter);
+            if (group == null) {
+                group = new FilterGroup(filter);
+                groupsByFilter.put(filter, group);
+                FilterGroup[] current = groups;
+                FilterGroup[] next = Arrays.copyOf(current, current.length + 1);
+                next[current.length] = group;
+                groups = next;
+            }
+            handle = group.members.register(s);
+        }
+        FilterGroup registered = group;
+        return () -> {
+            if (handle.cancel()) {
+                removeIfEmpty(registered);
+                System.out.println("Subscriber deleted");
+            }
+        };
+    }
+
+    @Override
+    public void unregister(Subscriber s) {
+        super.unregister(s);
+        for (FilterGroup group : groups) {
+            if (group.members.remove(s)) {
+                removeIfEmpty(group);
+                System.out.println("Subscriber deleted");
+            }
+        }
+    }
+
+    /**
+     * Number of filter evaluations a price change costs.
+     */
+    public int filterGroupCount() {
+        return groups.length;
+    }
+
+    @Override
+    void dispatch(long version, double ibmPrice, double applePrice, double googlePrice) {
+        super.dispatch(version, ibmPrice, applePrice, googlePrice);
+        for (FilterGroup group : groups) {
+            if (group.accept(ibmPrice, applePrice, googlePrice)) {
+                group.members.forEach(s -> s.update(ibmPrice, applePrice, googlePrice));
+            }
+        }
+    }
+
+    private void removeIfEmpty(FilterGroup group) {
+        synchronized (groupsLock) {
+            if (group.members.size() > 0 || groupsByFilter.get(group.filter) != group) {
+                return;
+            }
+            groupsByFilter.remove(group.filter);
+            FilterGroup[] current = groups;
+            FilterGroup[] next = new FilterGroup[current.length - 1];
+            for (int i = 0, j = 0; i < current.length; i++) {
+                if (current[i] != group) {
+                    next[j++] = current[i];
+                }
+            }
+            groups = next;
+        }
+    }
+
+    private static final class FilterGroup {
+        final PriceFilter filter;
+        final SlotSubscriberRegistry<Subscriber> members = new SlotSubscriberRegistry<>();
+        // Guarded by this
+        private final double[] delivered = {Double.NaN, Double.NaN, Double.NaN};
+        private final double[] candidate = new double[3];
+
+        FilterGroup(PriceFilter filter) {
+            this.filter = filter;
+        }
+
+        // Publishers on several threads may evaluate the same group; each decision is made against the last delivery
+        synchronized boolean accept(double ibmPrice, double applePrice, double googlePrice) {
+            candidate[IBM] = ibmPrice;
+            candidate[APPLE] = applePrice;
+            candidate[GOOGLE] = googlePrice;
+            if (!filter.accept(delivered, candidate)) {
+                return false;
+            }
+            System.arraycopy(candidate, 0, delivered, 0, candidate.length);
+            return true;
+        }
+    }
+}
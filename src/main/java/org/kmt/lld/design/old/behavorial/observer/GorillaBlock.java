@@ -0,0 +1,271 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * One fixed-size block of a compressed price series, encoded the way Facebook's Gorilla does it.
+ *
+ * Layout (big-endian):
+ *
+ *   header: tick count (int) | payload length in bits (int) | first timestamp (long) | last timestamp (long) |
+ *           first price (double)
+ *   payload: one entry per tick after the first, as a bit stream
+ *
+ * Timestamps are stored as the change of the delta to the previous tick (delta-of-delta): 1 bit when ticks come at a
+ * steady pace, 9, 12 or 16 bits for small changes and 36 bits otherwise. Prices are XORed with the previous price;
+ * an unchanged price is 1 bit, and otherwise only the bits between the XOR's leading and trailing zeros are stored,
+ * reusing the previous window when they fit in it.
+ *
+ * A block is appended to until the next tick might not fit, then sealed and written out as is. Decoding needs nothing
+ * but the block itself.
+ */
+final class GorillaBlock {
+
+    static final int SIZE = 4096;
+    static final int HEADER_SIZE = 32;
+
+    private static final int COUNT_OFFSET = 0;
+    private static final int BITS_OFFSET = 4;
+    private static final int FIRST_TIMESTAMP_OFFSET = 8;
+    private static final int LAST_TIMESTAMP_OFFSET = 16;
+    private static final int FIRST_PRICE_OFFSET = 24;
+
+    private static final int CAPACITY_BITS = (SIZE - HEADER_SIZE) * 8;
+    // Largest entry: '1111' + 32 bit timestamp, '11' + 5 bit leading zeros + 6 bit length + 64 bits of price
+    private static final int MAX_ENTRY_BITS = 4 + 32 + 2 + 5 + 6 + 64;
+
+    private final byte[] bytes = new byte[SIZE];
+    private final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+    // Encoder state
+    private int count;
+    private int bits;
+    private long lastTimestamp;
+    private long lastDelta;
+    private long lastPriceBits;
+    private int leading = Integer.MAX_VALUE;
+    private int trailing;
+
+    /**
+     * Appends a tick.
+     *
+     * @return false if the block is full or the tick is too far from the previous one; start a new block for it
+     */
+    boolean append(long timestamp, double price) {
+        long priceBits = Double.doubleToRawLongBits(price);
+        if (count == 0) {
+            buffer.putLong(FIRST_TIMESTAMP_OFFSET, timestamp);
+            buffer.putDouble(FIRST_PRICE_OFFSET, price);
+            lastTimestamp = timestamp;
+            lastPriceBits = priceBits;
+            lastDelta = 0;
+            count = 1;
+            return true;
+        }
+        long delta = timestamp - lastTimestamp;
+        long deltaOfDelta = delta - lastDelta;
+        if (bits + MAX_ENTRY_BITS > CAPACITY_BITS || deltaOfDelta != (int) deltaOfDelta) {
+            return false;
+        }
+        writeTimestamp(deltaOfDelta);
+        writePrice(priceBits);
+        lastTimestamp = timestamp;
+        lastDelta = delta;
+        lastPriceBits = priceBits;
+        count++;
+        return true;
+    }
+
+    private void writeTimestamp(long deltaOfDelta) {
+        if (deltaOfDelta == 0) {
+            writeBits(0b0, 1);
+        } else if (deltaOfDelta >= -63 && deltaOfDelta <= 64) {
+            writeBits(0b10, 2);
+            writeBits(deltaOfDelta + 63, 7);
+        } else if (deltaOfDelta >= -255 && deltaOfDelta <= 256) {
+            writeBits(0b110, 3);
+            writeBits(deltaOfDelta + 255, 9);
+        } else if (deltaOfDelta >= -2047 && deltaOfDelta <= 2048) {
+            writeBits(0b1110, 4);
+            writeBits(deltaOfDelta + 2047, 12);
+        } else {
+            writeBits(0b1111, 4);
+            writeBits(deltaOfDelta, 32);
+        }
+    }
+
+    private void writePrice(long priceBits) {
+        long xor = priceBits ^ lastPriceBits;
+        if (xor == 0) {
+            writeBits(0b0, 1);
+            return;
+        }
+        int newLeading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+        int newTrailing = Long.numberOfTrailingZeros(xor);
+        if (newLeading >= leading && newTrailing >= trailing) {
+            // Fits in the previous window
+            writeBits(0b10, 2);
+            writeBits(xor >>> trailing, 64 - leading - trailing);
+        } else {
+            int significant = 64 - newLeading - newTrailing;
+            writeBits(0b11, 2);
+            writeBits(newLeading, 5);
+            writeBits(significant & 63, 6); // 64 is stored as 0
+            writeBits(xor >>> newTrailing, significant);
+            leading = newLeading;
+            trailing = newTrailing;
+        }
+    }
+
+    // Writes the low n bits of the value, most significant first
+    private void writeBits(long value, int n) {
+        while (n > 0) {
+            int offset = HEADER_SIZE + (bits >>> 6) * 8;
+            int free = 64 - (bits & 63);
+            int take = Math.min(free, n);
+            long chunk = (value >>> (n - take)) & mask(take);
+            buffer.putLong(offset, buffer.getLong(offset) | chunk << (free - take));
+            bits += take;
+            n -= take;
+        }
+    }
+
+    int count() {
+        return count;
+    }
+
+    long firstTimestamp() {
+        return buffer.getLong(FIRST_TIMESTAMP_OFFSET);
+    }
+
+    long lastTimestamp() {
+        return lastTimestamp;
+    }
+
+    /**
+     * Fills in the header and returns the whole block, ready to be written.
+     */
+    ByteBuffer seal() {
+        buffer.putInt(COUNT_OFFSET, count);
+        buffer.putInt(BITS_OFFSET, bits);
+        buffer.putLong(LAST_TIMESTAMP_OFFSET, lastTimestamp);
+        return buffer.clear();
+    }
+
+    /**
+     * Copies the block as it is now, sealed, into the target buffer, leaving this block open for appends.
+     */
+    void copyTo(ByteBuffer target) {
+        seal();
+        target.clear().put(0, bytes, 0, SIZE);
+    }
+
+    /**
+     * Empties the block for reuse.
+     */
+    void reset() {
+        Arrays.fill(bytes, (byte) 0);
+        count = 0;
+        bits = 0;
+        leading = Integer.MAX_VALUE;
+        trailing = 0;
+    }
+
+    static int count(ByteBuffer block) {
+        return block.getInt(COUNT_OFFSET);
+    }
+
+    static long firstTimestamp(ByteBuffer block) {
+        return block.getLong(FIRST_TIMESTAMP_OFFSET);
+    }
+
+    static long lastTimestamp(ByteBuffer block) {
+        return block.getLong(LAST_TIMESTAMP_OFFSET);
+    }
+
+    /**
+     * Decodes the ticks with from <= timestamp <= to from a sealed block.
+     *
+     * @return the number of ticks passed to the handler
+     */
+    static int decode(ByteBuffer block, int symbolId, long from, long to, TickJournal.TickHandler handler) {
+        int count = count(block);
+        if (count == 0) {
+            return 0;
+        }
+        BitReader reader = new BitReader(block);
+        long timestamp = block.getLong(FIRST_TIMESTAMP_OFFSET);
+        long priceBits = Double.doubleToRawLongBits(block.getDouble(FIRST_PRICE_OFFSET));
+        long delta = 0;
+        int leading = 0;
+        int trailing = 0;
+        int delivered = 0;
+        for (int i = 0; ; i++) {
+            if (timestamp > to) {
+                break;
+            }
+            if (timestamp >= from) {
+                handler.onTick(timestamp, symbolId, Double.longBitsToDouble(priceBits));
+                delivered++;
+            }
+            if (i + 1 == count) {
+                break;
+            }
+            delta += reader.readDeltaOfDelta();
+            timestamp += delta;
+            if (reader.readBits(1) != 0) {
+                if (reader.readBits(1) != 0) {
+                    leading = (int) reader.readBits(5);
+                    int significant = (int) reader.readBits(6);
+                    trailing = 64 - leading - (significant == 0 ? 64 : significant);
+                }
+                priceBits ^= reader.readBits(64 - leading - trailing) << trailing;
+            }
+        }
+        return delivered;
+    }
+
+    private static long mask(int n) {
+        return n == 64 ? -1L : (1L << n) - 1;
+    }
+
+    private static final class BitReader {
+        private final ByteBuffer block;
+        private int position;
+
+        BitReader(ByteBuffer block) {
+            this.block = block;
+        }
+
+        long readDeltaOfDelta() {
+            if (readBits(1) == 0) {
+                return 0;
+            }
+            if (readBits(1) == 0) {
+                return readBits(7) - 63;
+            }
+            if (readBits(1) == 0) {
+                return readBits(9) - 255;
+            }
+            if (readBits(1) == 0) {
+                return readBits(12) - 2047;
+            }
+            return (int) readBits(32);
+        }
+
+        long readBits(int n) {
+            long value = 0;
+            while (n > 0) {
+                int offset = HEADER_SIZE + (position >>> 6) * 8;
+                int available = 64 - (position & 63);
+                int take = Math.min(available, n);
+                long chunk = (block.getLong(offset) >>> (available - take)) & mask(take);
+                value = take == 64 ? chunk : value << take | chunk;
+                position += take;
+                n -= take;
+            }
+            return value;
+        }
+    }
+}
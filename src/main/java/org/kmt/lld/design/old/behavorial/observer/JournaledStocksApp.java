@@ -0,0 +1,33 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class JournaledStocksApp {
+    public static void main(String[] args) throws IOException {
+        Path file = Files.createTempFile("ticks", ".journal");
+        Files.delete(file); // let the journal create and size the file
+
+        try (TickJournal journal = new TickJournal(file, 1_000_000)) {
+            JournalingStockPublisher stockPublisher = new JournalingStockPublisher(journal);
+            stockPublisher.setIbmPrice(10);
+            stockPublisher.setApplePrice(20);
+            stockPublisher.setGooglePrice(30);
+            stockPublisher.setIbmPrice(15);
+
+            // Joins late, but first sees the history from the second tick on, then live prices
+            stockPublisher.registerFromRecord((ibmPrice, applePrice, googlePrice) -> System.out.println(
+                    "late subscriber: ibm " + ibmPrice + ", apple " + applePrice + ", google " + googlePrice), 1);
+            stockPublisher.setApplePrice(25);
+            System.out.println("Journaled ticks: " + journal.recordCount());
+        }
+
+        // The history survives a restart
+        try (TickJournal reopened = new TickJournal(file, 1_000_000)) {
+            reopened.replay(0, Long.MAX_VALUE, (timestamp, symbolId, price) ->
+                    System.out.println(timestamp + " symbol " + symbolId + " " + price));
+        }
+        Files.delete(file);
+    }
+}
@@ -0,0 +1,146 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import org.kmt.lld.design.patterns.behavorial.observer.CopyOnWriteSubscriberRegistry;
+import org.kmt.lld.design.patterns.behavorial.observer.SubscriberRegistry;
+
+/**
+ * A StockPublisher that records every tick in a {@link TickJournal} and can replay history to late subscribers.
+ *
+ * A subscriber registered with {@link #registerFromRecord} or {@link #registerFromTime} first receives the price
+ * vectors as they were after each journaled tick, starting at the requested point, and then continues with live
+ * updates. {@link #setPrices} journals one tick per symbol but, like StockPublisher, notifies once for the batch, so a
+ * batch is three updates when replayed and one when live.
+ *
+ * Publishing holds a lock only while the tick is appended to the journal and written to the price table, so that
+ * journal order and price order agree; subscribers are notified after it is released. The hand-over from replay to
+ * live updates goes by journal record index: the subscriber is registered first, then the journal's record count is
+ * read as the go-live point. Every tick at or after that point is appended after the registration and so reaches the
+ * subscriber live; every tick before it is replayed, and its live notification, if it still reaches the subscriber,
+ * is dropped. Each tick is seen exactly once, without holding up publishers while history is replayed.
+ */
+public class JournalingStockPublisher extends StockPublisher {
+
+    private static final int[] SYMBOLS = {IBM, APPLE, GOOGLE};
+
+    private final TickJournal journal;
+    private final Object publishLock = new Object();
+    private final SubscriberRegistry<ReplayingSubscriber> replaying = new CopyOnWriteSubscriberRegistry<>();
+
+    JournalingStockPublisher(TickJournal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public void setPrice(int symbolId, double price) {
+        long record;
+        synchronized (publishLock) {
+            record = journal.append(symbolId, price);
+            prices.set(symbolId, price);
+        }
+        notifySubscribers(record);
+    }
+
+    @Override
+    public void setPrices(double ibmPrice, double applePrice, double googlePrice) {
+        long record;
+        synchronized (publishLock) {
+            journal.append(IBM, ibmPrice);
+            journal.append(APPLE, applePrice);
+            record = journal.append(GOOGLE, googlePrice);
+            prices.setAll(ibmPrice, applePrice, googlePrice);
+        }
+        notifySubscribers(record);
+    }
+
+    // Notifies plain subscribers as StockPublisher does, and replaying subscribers with the tick's record index
+    private void notifySubscribers(long record) {
+        double ibmPrice;
+        double applePrice;
+        double googlePrice;
+        long stamp;
+        do {
+            stamp = prices.startRead();
+            ibmPrice = prices.get(IBM);
+            applePrice = prices.get(APPLE);
+            googlePrice = prices.get(GOOGLE);
+        } while (!prices.validate(stamp));
+        dispatch(stamp >>> 1, ibmPrice, applePrice, googlePrice);
+        double ibm = ibmPrice;
+        double apple = applePrice;
+        double google = googlePrice;
+        replaying.forEach(s -> s.live(record, ibm, apple, google));
+    }
+
+    /**
+     * Replays from the first tick at or after the timestamp (epoch millis), then switches to live updates.
+     */
+    public Subscription registerFromTime(Subscriber s, long timestamp) {
+        return registerFromRecord(s, journal.findRecord(timestamp));
+    }
+
+    /**
+     * Replays from the given record index, then switches to live updates.
+     */
+    public Subscription registerFromRecord(Subscriber s, long fromRecord) {
+        ReplayingSubscriber replayer = new ReplayingSubscriber(s, fromRecord);
+        // Catch up without blocking anybody...
+        long next = journal.replay(fromRecord, Long.MAX_VALUE, replayer);
+        // ...then go live: ticks from here on are delivered by the publishers, the rest is replayed
+        replayer.goLive(next);
+        return () -> {
+            if (replaying.remove(replayer)) {
+                System.out.println("Subscriber deleted");
+            }
+        };
+    }
+
+    @Override
+    public void unregister(Subscriber s) {
+        super.unregister(s);
+        replaying.forEach(replayer -> {
+            if (replayer.subscriber == s && replaying.remove(replayer)) {
+                System.out.println("Subscriber deleted");
+            }
+        });
+    }
+
+    private final class ReplayingSubscriber implements TickJournal.TickHandler {
+        final Subscriber subscriber;
+        // Guarded by this: prices as replayed so far, and the first record delivered live
+        private final double[] prices = new double[SYMBOLS.length];
+        private long liveFrom = Long.MAX_VALUE;
+
+        ReplayingSubscriber(Subscriber subscriber, long fromRecord) {
+            this.subscriber = subscriber;
+            // Prices as they were just before the first replayed tick
+            for (int symbolId : SYMBOLS) {
+                double price = journal.priceBefore(fromRecord, symbolId);
+                prices[symbolId] = Double.isNaN(price) ? 0 : price;
+            }
+        }
+
+        @Override
+        public synchronized void onTick(long timestamp, int symbolId, double price) {
+            prices[symbolId] = price;
+            subscriber.update(prices[IBM], prices[APPLE], prices[GOOGLE]);
+        }
+
+        // Live notifications that arrive while the tail is replayed wait for it on the lock
+        synchronized void goLive(long replayedUpTo) {
+            replaying.add(this);
+            long end;
+            synchronized (publishLock) {
+                // Read under the lock only so the go-live point never splits a multi-tick update
+                end = journal.recordCount();
+            }
+            journal.replay(replayedUpTo, end, this);
+            liveFrom = end;
+        }
+
+        synchronized void live(long record, double ibmPrice, double applePrice, double googlePrice) {
+            if (record >= liveFrom) {
+                subscriber.update(ibmPrice, applePrice, googlePrice);
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import org.kmt.lld.design.patterns.behavorial.observer.CopyOnWriteSubscriberRegistry;
+import org.kmt.lld.design.patterns.behavorial.observer.SubscriberRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A StockPublisher that hands new subscribers the current prices as soon as they register.
+ *
+ * The publisher keeps the last price vector it notified with, together with its version (the number of price table
+ * writes it includes), in a last-value cache: an immutable {@link LastValue} behind a single reference. Reading it is
+ * one volatile load, so it is wait-free and a late joiner can never hold up a publisher.
+ *
+ * Registering first adds the subscriber, then delivers the cached value to it, on the registering thread. The cache
+ * is updated before subscribers are notified, so every update a new subscriber misses because it was being dispatched
+ * while the subscriber registered is already in the cached value it gets: no gap. Each subscriber remembers the
+ * version it last received and ignores anything not newer: no duplicate when an update is both in the snapshot and
+ * dispatched live, and no step back when concurrent publishers deliver out of order.
+ *
+ * Costs over StockPublisher: one small allocation per update for the cache entry, and one version check per
+ * subscriber and update.
+ */
+public class LastValueStockPublisher extends StockPublisher {
+
+    /**
+     * Prices as of the given version.
+     */
+    public record LastValue(long version, double ibmPrice, double applePrice, double googlePrice) {
+    }
+
+    private final AtomicReference<LastValue> lastValue = new AtomicReference<>();
+    // Subscribers are notified through their gates, which live here rather than in StockPublisher's registry
+    private final SubscriberRegistry<Gate> gates = new CopyOnWriteSubscriberRegistry<>();
+    private final Map<Subscriber, Gate> gatesBySubscriber = new ConcurrentHashMap<>();
+
+    LastValueStockPublisher() {
+    }
+
+    /**
+     * The last prices subscribers were notified with, or null before the first update.
+     */
+    public LastValue lastValue() {
+        return lastValue.get();
+    }
+
+    @Override
+    public Subscription register(Subscriber s) {
+        Gate gate = new Gate(s);
+        if (gatesBySubscriber.putIfAbsent(s, gate) != null) {
+            // Already registered: cancelling this second registration must not end the first
+            return () -> {
+            };
+        }
+        gates.add(gate);
+        if (gatesBySubscriber.get(s) != gate) {
+            // Unregistered while this was registering: unregister may have missed the gate here
+            remove(gate);
+            return () -> {
+            };
+        }
+        LastValue current = lastValue.get();
+        if (current != null) {
+            gate.update(current.version(), current.ibmPrice(), current.applePrice(), current.googlePrice());
+        }
+        return () -> {
+            if (gatesBySubscriber.remove(s, gate)) {
+                remove(gate);
+            }
+        };
+    }
+
+    @Override
+    public void unregister(Subscriber s) {
+        Gate gate = gatesBySubscriber.remove(s);
+        if (gate != null) {
+            remove(gate);
+        }
+    }
+
+    private void remove(Gate gate) {
+        if (gates.remove(gate)) {
+            System.out.println("Subscriber deleted");
+        }
+    }
+
+    @Override
+    void dispatch(long version, double ibmPrice, double applePrice, double googlePrice) {
+        LastValue next = new LastValue(version, ibmPrice, applePrice, googlePrice);
+        // Only ever move forward; a publisher that read older prices than one racing with it loses
+        LastValue current = lastValue.get();
+        while ((current == null || current.version() < version) && !lastValue.compareAndSet(current, next)) {
+            current = lastValue.get();
+        }
+        gates.forEach(gate -> gate.update(version, ibmPrice, applePrice, googlePrice));
+    }
+
+    // Passes on only what is newer than what the subscriber already has; the version is all the gate needs
+    private static final class Gate {
+        private final Subscriber subscriber;
+        // Guarded by this
+        private long delivered = -1;
+
+        Gate(Subscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        synchronized void update(long version, double ibmPrice, double applePrice, double googlePrice) {
+            if (version > delivered) {
+                delivered = version;
+                subscriber.update(ibmPrice, applePrice, googlePrice);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Demo of {@link LastValueStockPublisher}: a subscriber that joins late prints the current prices right away instead
+ * of waiting for the next change.
+ *
+ * The second part checks the hand-over from snapshot to live updates: one thread publishes prices that count up
+ * (the n-th update sets every price to n) while late joiners keep registering. Every joiner must then see
+ * consecutive numbers from its first update on - a jump is a gap, a repeat a duplicate.
+ */
+public class LastValueStocksApp {
+
+    static final int UPDATES = 1_000_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        LastValueStockPublisher stockPublisher = new LastValueStockPublisher();
+        StockSubscriber stockSubscriber1 = new StockSubscriber(stockPublisher);
+        stockPublisher.setIbmPrice(10);
+        stockPublisher.setApplePrice(20);
+        stockPublisher.setGooglePrice(30);
+
+        // Prints IBM 10, APPLE 20, GOOGLE 30 as soon as it is created
+        StockSubscriber stockSubscriber2 = new StockSubscriber(stockPublisher);
+        stockPublisher.setIbmPrice(15);
+
+        stockSubscriber1.unsubscribe();
+        stockSubscriber2.unsubscribe();
+
+        checkHandOver();
+    }
+
+    static void checkHandOver() throws InterruptedException {
+        LastValueStockPublisher stockPublisher = new LastValueStockPublisher();
+        LongAdder joiners = new LongAdder();
+        LongAdder gaps = new LongAdder();
+        LongAdder duplicates = new LongAdder();
+        AtomicBoolean publishing = new AtomicBoolean(true);
+
+        Thread publisher = new Thread(() -> {
+            for (int i = 1; i <= UPDATES; i++) {
+                stockPublisher.setPrices(i, i, i);
+            }
+            publishing.set(false);
+        });
+        Thread joiner = new Thread(() -> {
+            while (publishing.get()) {
+                double[] previous = {Double.NaN};
+                Subscription subscription = stockPublisher.register((ibmPrice, applePrice, googlePrice) -> {
+                    if (!Double.isNaN(previous[0])) {
+                        if (ibmPrice > previous[0] + 1) {
+                            gaps.increment();
+                        } else if (ibmPrice <= previous[0]) {
+                            duplicates.increment();
+                        }
+                    }
+                    previous[0] = ibmPrice;
+                });
+                joiners.increment();
+                Thread.yield();
+                subscription.cancel();
+            }
+        });
+        publisher.start();
+        joiner.start();
+        publisher.join();
+        joiner.join();
+
+        System.out.println(joiners.sum() + " late joiners during " + UPDATES + " updates: " + gaps.sum()
+                + " gaps, " + duplicates.sum() + " duplicates");
+    }
+}
@@ -0,0 +1,229 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import org.kmt.lld.design.patterns.behavorial.observer.LatencyHistogram;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a publisher with random-walk price ticks at a configurable rate and measures what it achieves.
+ *
+ * Symbols are split across worker threads (virtual threads); each symbol belongs to exactly one worker,
+ * so its price walk has a single writer. Every worker paces itself against a schedule: it emits bursts of
+ * {@code burstSize} ticks and sleeps until the next burst is due. A rate of 0 means "as fast as possible".
+ *
+ * Latency is measured from the moment a tick was scheduled to the moment the publish call returned. With a
+ * synchronous publisher that is publish-to-update-delivered. Measuring from the schedule, not from the actual send
+ * time, means that a stalled publisher shows up in the numbers instead of silently lowering the send rate.
+ *
+ * Use the {@link Builder}:
+ * <pre>
+ *   MarketDataLoadGenerator.builder().symbols(10_000).ticksPerSecond(1_000_000).burstSize(100).build()
+ *       .run(stockPublisher::setPrice, Duration.ofSeconds(10));
+ * </pre>
+ */
+public class MarketDataLoadGenerator {
+
+    /**
+     * Where generated ticks go, e.g. {@code StockPublisher::setPrice} or {@code SymbolStockPublisher::publish}.
+     */
+    public interface TickSink {
+        void onTick(int symbolId, double price);
+    }
+
+    public record Report(long ticks, Duration elapsed, LatencyHistogram latencies) {
+        public double ticksPerSecond() {
+            return ticks / (elapsed.toNanos() / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,d ticks in %d ms = %,.0f ticks/s, latency p50=%dns p99=%dns p99.9=%dns",
+                    ticks, elapsed.toMillis(), ticksPerSecond(), latencies.percentile(50),
+                    latencies.percentile(99), latencies.percentile(99.9));
+        }
+    }
+
+    private final double[] startPrices;
+    private final int threads;
+    private final double ticksPerSecond;
+    private final int burstSize;
+    private final double volatility;
+    private final long seed;
+
+    private MarketDataLoadGenerator(Builder builder) {
+        this.startPrices = builder.startPrices;
+        this.threads = Math.min(builder.threads, startPrices.length);
+        this.ticksPerSecond = builder.ticksPerSecond;
+        this.burstSize = builder.burstSize;
+        this.volatility = builder.volatility;
+        this.seed = builder.seed;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Generates ticks into the sink for the given duration and blocks until done.
+     */
+    public Report run(TickSink sink, Duration duration) throws InterruptedException {
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        List<Worker> workers = new ArrayList<>();
+        List<Thread> workerThreads = new ArrayList<>();
+        for (int index = 0; index < threads; index++) {
+            Worker worker = new Worker(index, sink, start, end);
+            workers.add(worker);
+            workerThreads.add(Thread.ofVirtual().name("load-generator-" + index).start(worker));
+        }
+        for (Thread workerThread : workerThreads) {
+            workerThread.join();
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // Workers count into their own histograms so they never contend; combine them at the end
+        LatencyHistogram latencies = new LatencyHistogram();
+        long ticks = 0;
+        for (Worker worker : workers) {
+            latencies.add(worker.latencies);
+            ticks += worker.ticks;
+        }
+        return new Report(ticks, elapsed, latencies);
+    }
+
+    // Rounds to cents, the way the old simulator did with a DecimalFormat, without allocating
+    static double roundToCents(double price) {
+        return Math.round(price * 100) / 100.0;
+    }
+
+    private class Worker implements Runnable {
+        private final int[] symbols;
+        private final double[] prices;
+        private final TickSink sink;
+        private final long start;
+        private final long end;
+        private final SplittableRandom random;
+        final LatencyHistogram latencies = new LatencyHistogram();
+        long ticks;
+
+        Worker(int index, TickSink sink, long start, long end) {
+            this.symbols = new int[(startPrices.length - index + threads - 1) / threads];
+            this.prices = new double[symbols.length];
+            for (int i = 0; i < symbols.length; i++) {
+                symbols[i] = index + i * threads;
+                prices[i] = startPrices[symbols[i]];
+            }
+            this.sink = sink;
+            this.start = start;
+            this.end = end;
+            this.random = new SplittableRandom(seed + index);
+        }
+
+        @Override
+        public void run() {
+            // Each worker gets an equal share of the rate; 0 means unthrottled
+            double nanosPerTick = ticksPerSecond > 0 ? 1e9 * threads / ticksPerSecond : 0;
+            long sent = 0;
+            int next = 0;
+            while (true) {
+                long scheduled = start + (long) (sent * nanosPerTick);
+                long now = System.nanoTime();
+                if (scheduled >= end || now >= end) {
+                    break;
+                }
+                if (scheduled > now) {
+                    LockSupport.parkNanos(scheduled - now);
+                }
+                for (int i = 0; i < burstSize; i++) {
+                    // A whole burst is due at the scheduled time; unthrottled ticks are due when they are sent
+                    long intended = nanosPerTick > 0 ? scheduled : System.nanoTime();
+                    double move = (random.nextDouble() * 2 - 1) * volatility;
+                    double price = roundToCents(prices[next] + move);
+                    prices[next] = price;
+                    sink.onTick(symbols[next], price);
+                    latencies.record(System.nanoTime() - intended);
+                    next = next + 1 == symbols.length ? 0 : next + 1;
+                }
+                sent += burstSize;
+                ticks += burstSize;
+            }
+        }
+    }
+
+    /**
+     * Builder for MarketDataLoadGenerator.
+     */
+    public static class Builder {
+        private double[] startPrices = {100.0};
+        private int threads = Runtime.getRuntime().availableProcessors();
+        private double ticksPerSecond;
+        private int burstSize = 1;
+        private double volatility = 0.03;
+        private long seed = 42;
+
+        /**
+         * Symbols 0..count-1, all starting at 100.00.
+         */
+        public Builder symbols(int count) {
+            double[] prices = new double[count];
+            Arrays.fill(prices, 100.0);
+            this.startPrices = prices;
+            return this;
+        }
+
+        /**
+         * Symbols 0..n-1 with the given start prices.
+         */
+        public Builder startPrices(double... startPrices) {
+            this.startPrices = startPrices.clone();
+            return this;
+        }
+
+        public Builder threads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Total rate over all threads; 0 (the default) generates as fast as the sink allows.
+         */
+        public Builder ticksPerSecond(double ticksPerSecond) {
+            this.ticksPerSecond = ticksPerSecond;
+            return this;
+        }
+
+        /**
+         * Ticks sent back to back each time the schedule allows, to model bursty feeds.
+         */
+        public Builder burstSize(int burstSize) {
+            this.burstSize = burstSize;
+            return this;
+        }
+
+        /**
+         * Largest price move per tick, in either direction.
+         */
+        public Builder volatility(double volatility) {
+            this.volatility = volatility;
+            return this;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public MarketDataLoadGenerator build() {
+            if (startPrices.length == 0 || threads < 1 || burstSize < 1 || ticksPerSecond < 0) {
+                throw new IllegalArgumentException("invalid load generator configuration");
+            }
+            return new MarketDataLoadGenerator(this);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import org.kmt.lld.design.patterns.behavorial.observer.OverflowPolicy;
+import org.kmt.lld.design.patterns.behavorial.observer.SlowConsumerPolicy;
+import org.kmt.lld.design.patterns.behavorial.observer.SubscriberMonitor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A StockPublisher that times every subscriber's update call.
+ *
+ * Each subscriber gets a {@link SubscriberMonitor} with its call count and latency histogram. A subscriber that keeps
+ * going over the per-call budget is moved to its own mailbox thread, skipped or evicted, depending on the
+ * {@link SlowConsumerPolicy}.
+ */
+public class MonitoredStockPublisher extends StockPublisher implements AutoCloseable {
+
+    private final long budgetNanos;
+    private final int maxStrikes;
+    private final SlowConsumerPolicy policy;
+    private final Map<Subscriber, MonitoredStockSubscriber> wrappers = new ConcurrentHashMap<>();
+    // Evicted subscribers' monitors, for as long as someone still holds the subscriber to ask about it
+    private final Map<Subscriber, SubscriberMonitor> evicted = Collections.synchronizedMap(new WeakHashMap<>());
+
+    MonitoredStockPublisher(long budgetNanos, int maxStrikes, SlowConsumerPolicy policy) {
+        this.budgetNanos = budgetNanos;
+        this.maxStrikes = maxStrikes;
+        this.policy = policy;
+    }
+
+    @Override
+    public Subscription register(Subscriber s) {
+        SubscriberMonitor monitor = new SubscriberMonitor(s.toString(), budgetNanos, maxStrikes, policy);
+        MonitoredStockSubscriber wrapper = new MonitoredStockSubscriber(s, monitor);
+        if (wrappers.putIfAbsent(s, wrapper) != null) {
+            // Already registered: cancelling this second registration must not end the first
+            return () -> {
+            };
+        }
+        evicted.remove(s);
+        Subscription subscription = super.register(wrapper);
+        if (wrappers.get(s) != wrapper) {
+            // Unregistered while this was registering: unregister closed the wrapper, but may have missed it here
+            subscription.cancel();
+        }
+        return () -> {
+            if (wrappers.remove(s, wrapper)) {
+                subscription.cancel();
+                wrapper.close();
+            }
+        };
+    }
+
+    @Override
+    public void unregister(Subscriber s) {
+        MonitoredStockSubscriber wrapper = wrappers.remove(s);
+        if (wrapper != null) {
+            super.unregister(wrapper);
+            wrapper.close();
+            if (wrapper.monitor.status() == SubscriberMonitor.Status.EVICTED) {
+                evicted.put(s, wrapper.monitor);
+            }
+        }
+    }
+
+    /**
+     * Timing and status of a subscriber, or of an evicted subscriber that is still referenced elsewhere; null for a
+     * subscriber that was unregistered.
+     */
+    public SubscriberMonitor monitor(Subscriber s) {
+        MonitoredStockSubscriber wrapper = wrappers.get(s);
+        return wrapper != null ? wrapper.monitor : evicted.get(s);
+    }
+
+    /**
+     * Monitors of the current subscribers, then of the evicted ones that are still referenced elsewhere.
+     */
+    public Collection<SubscriberMonitor> monitors() {
+        List<SubscriberMonitor> monitors = new ArrayList<>();
+        for (MonitoredStockSubscriber wrapper : wrappers.values()) {
+            monitors.add(wrapper.monitor);
+        }
+        synchronized (evicted) {
+            monitors.addAll(evicted.values());
+        }
+        return monitors;
+    }
+
+    @Override
+    public void close() {
+        for (Subscriber s : wrappers.keySet()) {
+            unregister(s);
+        }
+    }
+
+    private record Prices(double ibmPrice, double applePrice, double googlePrice) {
+    }
+
+    /**
+     * Times the wrapped subscriber and applies the slow-consumer policy through its monitor's
+     * {@link SubscriberMonitor.Delivery}.
+     *
+     * Every update carries all three current prices, so a subscriber that fell behind only needs the latest one: once
+     * ASYNC it gets a one-slot conflating mailbox rather than a queue of stale prices.
+     */
+    private class MonitoredStockSubscriber implements Subscriber, AutoCloseable {
+        private final Subscriber delegate;
+        final SubscriberMonitor monitor;
+        private final SubscriberMonitor.Delivery<Prices> delivery;
+
+        MonitoredStockSubscriber(Subscriber delegate, SubscriberMonitor monitor) {
+            this.delegate = delegate;
+            this.monitor = monitor;
+            this.delivery = monitor.delivery(
+                    prices -> delegate.update(prices.ibmPrice(), prices.applePrice(), prices.googlePrice()),
+                    1, OverflowPolicy.CONFLATE, () -> unregister(delegate));
+        }
+
+        @Override
+        public void update(double ibmPrice, double applePrice, double googlePrice) {
+            if (delivery.active()) {
+                // Called directly, so the synchronous path does not allocate a Prices per update
+                long start = System.nanoTime();
+                delegate.update(ibmPrice, applePrice, googlePrice);
+                delivery.recordCall(System.nanoTime() - start);
+            } else {
+                delivery.deliver(new Prices(ibmPrice, applePrice, googlePrice));
+            }
+        }
+
+        @Override
+        public void close() {
+            delivery.close();
+        }
+    }
+}
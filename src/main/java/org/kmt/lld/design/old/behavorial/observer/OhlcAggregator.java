@@ -0,0 +1,110 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Subscriber that keeps open/high/low/close, VWAP and volume bars for every symbol over several sliding windows
+ * (1 second, 1 minute and 5 minutes by default), updated as ticks arrive.
+ *
+ * Each tick costs O(1) amortized per window and memory is fixed up front: every window is split into
+ * {@value #BUCKETS_PER_WINDOW} buckets, so it slides in steps of 1% of its length (10 ms for the 1 second window).
+ * See {@link SlidingWindowBar}.
+ *
+ * StockPublisher updates carry no volume, so ticks recorded from them count with volume 1 and the VWAP is the plain
+ * average tick price; feeds that know volumes can call {@link #onTick(int, long, double, double)} directly.
+ */
+public class OhlcAggregator implements Subscriber {
+
+    public static final Duration[] DEFAULT_WINDOWS = {Duration.ofSeconds(1), Duration.ofMinutes(1),
+            Duration.ofMinutes(5)};
+
+    static final int BUCKETS_PER_WINDOW = 100;
+
+    public record Bar(Duration window, double open, double high, double low, double close, double vwap,
+                      double volume) {
+        @Override
+        public String toString() {
+            return String.format("%6s O %.2f H %.2f L %.2f C %.2f VWAP %.4f V %.0f", window.toString().substring(2),
+                    open, high, low, close, vwap, volume);
+        }
+    }
+
+    private final LongSupplier clock;
+    private final Duration[] windows;
+    // [symbolId][window]; each symbol's bars are guarded by bars[symbolId]
+    private final SlidingWindowBar[][] bars;
+    private final double[] lastPrices;
+
+    public OhlcAggregator() {
+        this(3, System::currentTimeMillis, DEFAULT_WINDOWS);
+    }
+
+    /**
+     * @param clock epoch millis, used to stamp ticks from StockPublisher and to slide windows when reading bars
+     */
+    public OhlcAggregator(int symbolCount, LongSupplier clock, Duration... windows) {
+        this.clock = clock;
+        this.windows = windows.clone();
+        this.bars = new SlidingWindowBar[symbolCount][windows.length];
+        for (int symbolId = 0; symbolId < symbolCount; symbolId++) {
+            for (int window = 0; window < windows.length; window++) {
+                bars[symbolId][window] = new SlidingWindowBar(windows[window].toMillis(), BUCKETS_PER_WINDOW);
+            }
+        }
+        this.lastPrices = new double[symbolCount];
+        Arrays.fill(lastPrices, Double.NaN);
+    }
+
+    /**
+     * Records the prices that changed since the previous update.
+     */
+    @Override
+    public void update(double ibmPrice, double applePrice, double googlePrice) {
+        long now = clock.getAsLong();
+        recordIfChanged(StockPublisher.IBM, now, ibmPrice);
+        recordIfChanged(StockPublisher.APPLE, now, applePrice);
+        recordIfChanged(StockPublisher.GOOGLE, now, googlePrice);
+    }
+
+    private void recordIfChanged(int symbolId, long timestamp, double price) {
+        if (symbolId >= bars.length) {
+            return;
+        }
+        synchronized (bars[symbolId]) {
+            if (Double.compare(lastPrices[symbolId], price) != 0) {
+                lastPrices[symbolId] = price;
+                for (SlidingWindowBar bar : bars[symbolId]) {
+                    bar.onTick(timestamp, price, 1);
+                }
+            }
+        }
+    }
+
+    public void onTick(int symbolId, long timestamp, double price, double volume) {
+        synchronized (bars[symbolId]) {
+            lastPrices[symbolId] = price;
+            for (SlidingWindowBar bar : bars[symbolId]) {
+                bar.onTick(timestamp, price, volume);
+            }
+        }
+    }
+
+    /**
+     * The bar of the symbol over the window with the given index, as of now. All prices are NaN when there was no
+     * tick in the window.
+     */
+    public Bar bar(int symbolId, int window) {
+        long now = clock.getAsLong();
+        synchronized (bars[symbolId]) {
+            SlidingWindowBar bar = bars[symbolId][window];
+            bar.advanceTo(now);
+            return new Bar(windows[window], bar.open(), bar.high(), bar.low(), bar.close(), bar.vwap(), bar.volume());
+        }
+    }
+
+    public int windowCount() {
+        return windows.length;
+    }
+}
@@ -0,0 +1,37 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import java.time.Duration;
+
+public class OhlcStocksApp {
+    public static void main(String[] args) throws InterruptedException {
+        StockPublisher stockPublisher = new StockPublisher();
+        OhlcAggregator aggregator = new OhlcAggregator();
+        stockPublisher.register(aggregator);
+
+        // Print IBM's bars once a second while the generator runs
+        Thread dashboard = Thread.ofVirtual().start(() -> {
+            try {
+                while (true) {
+                    Thread.sleep(1_000);
+                    for (int window = 0; window < aggregator.windowCount(); window++) {
+                        System.out.println("IBM " + aggregator.bar(StockPublisher.IBM, window));
+                    }
+                    System.out.println();
+                }
+            } catch (InterruptedException e) {
+                // done
+            }
+        });
+
+        MarketDataLoadGenerator.Report report = MarketDataLoadGenerator.builder()
+                .startPrices(197.00, 677.60, 676.40) // IBM, APPLE, GOOGLE
+                .threads(3)
+                .ticksPerSecond(100_000)
+                .burstSize(100)
+                .build()
+                .run(stockPublisher::setPrice, Duration.ofSeconds(5));
+        dashboard.interrupt();
+        dashboard.join();
+        System.out.println("Publisher with aggregator: " + report);
+    }
+}
@@ -0,0 +1,81 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+/**
+ * Publisher-side filter for a {@link FilteringStockPublisher} subscription.
+ *
+ * A filter sees the prices its subscribers were last notified with and the new prices, both indexed by symbol id,
+ * and decides whether the new prices are worth a notification. Before the first notification the delivered prices are
+ * NaN.
+ *
+ * Subscribers registered with equal filters share one evaluation per price change, so filters should have value
+ * semantics; the built-in ones are records.
+ */
+public interface PriceFilter {
+
+    // Field masks, one bit per symbol id
+    public static final int IBM_FIELD = 1 << StockPublisher.IBM;
+    public static final int APPLE_FIELD = 1 << StockPublisher.APPLE;
+    public static final int GOOGLE_FIELD = 1 << StockPublisher.GOOGLE;
+    public static final int ALL_FIELDS = IBM_FIELD | APPLE_FIELD | GOOGLE_FIELD;
+
+    public boolean accept(double[] delivered, double[] prices);
+
+    /**
+     * Passes when any of the masked prices differs from the one last delivered.
+     */
+    public static PriceFilter changed(int fieldMask) {
+        return new Changed(fieldMask);
+    }
+
+    /**
+     * Passes when any of the masked prices moved by more than the fraction (0.01 for 1%) since the last delivery.
+     */
+    public static PriceFilter movedBy(int fieldMask, double fraction) {
+        return new MovedBy(fieldMask, fraction);
+    }
+
+    /**
+     * Passes when the price crosses the level in either direction. The first price at or above the level counts as
+     * crossing it.
+     */
+    public static PriceFilter crosses(int symbolId, double level) {
+        return new Crosses(symbolId, level);
+    }
+
+    record Changed(int fieldMask) implements PriceFilter {
+        @Override
+        public boolean accept(double[] delivered, double[] prices) {
+            for (int symbolId = 0; symbolId < prices.length; symbolId++) {
+                if ((fieldMask & 1 << symbolId) != 0 && Double.compare(delivered[symbolId], prices[symbolId]) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    record MovedBy(int fieldMask, double fraction) implements PriceFilter {
+        @Override
+        public boolean accept(double[] delivered, double[] prices) {
+            for (int symbolId = 0; symbolId < prices.length; symbolId++) {
+                if ((fieldMask & 1 << symbolId) == 0) {
+                    continue;
+                }
+                double last = delivered[symbolId];
+                if (Double.isNaN(last) || Math.abs(prices[symbolId] - last) > Math.abs(last) * fraction) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    record Crosses(int symbolId, double level) implements PriceFilter {
+        @Override
+        public boolean accept(double[] delivered, double[] prices) {
+            double last = delivered[symbolId];
+            boolean wasAbove = !Double.isNaN(last) && last >= level;
+            return wasAbove != prices[symbolId] >= level;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+/**
+ * Where a StockSubscriber's price output goes.
+ */
+public interface PriceSink {
+
+    /**
+     * The original behaviour: format and print on the calling thread.
+     */
+    PriceSink CONSOLE = (observerId, ibmPrice, applePrice, googlePrice) -> System.out.println(
+            "ObserverId: " + observerId + "\nibm: " + ibmPrice + "\napple: " + applePrice + "\ngoogle: " + googlePrice + "\n");
+
+    public void write(int observerId, double ibmPrice, double applePrice, double googlePrice);
+}
@@ -0,0 +1,101 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consistent three-price snapshots taken by many reader threads while one thread keeps updating all three prices.
+ *
+ * - seqlock: {@link PriceTable#snapshot(double[])}, readers retry instead of locking.
+ * - locked: the same reads and writes under a synchronized block, the obvious way to get consistency.
+ *
+ * Each reader checks that the vector it got is consistent (the writer always writes p, p + 1, p + 2) and counts
+ * torn reads, which must stay 0.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class PriceSnapshotBenchmark {
+
+    final PriceTable table = new PriceTable(3);
+    final double[] lockedPrices = {0, 1, 2};
+    double price;
+
+    @Setup
+    public void setUp() {
+        table.setAll(lockedPrices);
+    }
+
+    @State(Scope.Thread)
+    public static class Reader {
+        final double[] snapshot = new double[3];
+        long torn;
+
+        @TearDown
+        public void check() {
+            if (torn > 0) {
+                throw new IllegalStateException(torn + " torn snapshots");
+            }
+        }
+
+        double verify() {
+            if (snapshot[1] != snapshot[0] + 1 || snapshot[2] != snapshot[0] + 2) {
+                torn++;
+            }
+            return snapshot[0];
+        }
+    }
+
+    @Benchmark
+    @Group("seqlock")
+    @GroupThreads(1)
+    public void seqlockWrite() {
+        price++;
+        table.setAll(price, price + 1, price + 2);
+    }
+
+    @Benchmark
+    @Group("seqlock")
+    @GroupThreads(7)
+    public double seqlockRead(Reader reader) {
+        table.snapshot(reader.snapshot);
+        return reader.verify();
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(1)
+    public void lockedWrite() {
+        synchronized (lockedPrices) {
+            price++;
+            lockedPrices[0] = price;
+            lockedPrices[1] = price + 1;
+            lockedPrices[2] = price + 2;
+        }
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(7)
+    public double lockedRead(Reader reader) {
+        synchronized (lockedPrices) {
+            System.arraycopy(lockedPrices, 0, reader.snapshot, 0, 3);
+        }
+        return reader.verify();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PriceSnapshotBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
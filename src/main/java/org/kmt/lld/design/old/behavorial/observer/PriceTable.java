@@ -0,0 +1,135 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Latest price per symbol, stored in a primitive double[] indexed by symbol id (see {@link SymbolTable}).
+ *
+ * Updates and reads never box and never allocate. A single price can always be read on its own with {@link #get(int)}.
+ * Reading several prices as one consistent vector - no mix of values from before and after a concurrent update - goes
+ * through a sequence lock:
+ *
+ * - Writers take the lock by moving the sequence from even to odd, write, and release it by moving it to the next
+ *   even number. Writers exclude each other; an update of several prices ({@link #setAll(double...)}) is one write.
+ * - Readers never write anything. They note the sequence ({@link #startRead()}), read, and {@link #validate(long)}
+ *   that the sequence did not move in between; if it did they simply read again. {@link #snapshot(double[])} does
+ *   the loop for them.
+ *
+ * Any number of reader threads can take consistent snapshots at memory speed, and readers never hold up a writer. The
+ * capacity is fixed up front to keep the update path free of resizing.
+ */
+public class PriceTable {
+
+    private static final VarHandle PRICES = MethodHandles.arrayElementVarHandle(double[].class);
+    private static final VarHandle SEQUENCE;
+
+    static {
+        try {
+            SEQUENCE = MethodHandles.lookup().findVarHandle(PriceTable.class, "sequence", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final double[] prices;
+    // Odd while a write is in progress; sequence / 2 is the number of completed writes
+    private volatile long sequence;
+
+    public PriceTable(int capacity) {
+        this.prices = new double[capacity];
+    }
+
+    public void set(int symbolId, double price) {
+        long stamp = beginWrite();
+        PRICES.setOpaque(prices, symbolId, price);
+        endWrite(stamp);
+    }
+
+    /**
+     * Sets the prices of symbols 0..n-1 in one write: readers see either none or all of them.
+     */
+    public void setAll(double... newPrices) {
+        long stamp = beginWrite();
+        for (int symbolId = 0; symbolId < newPrices.length; symbolId++) {
+            PRICES.setOpaque(prices, symbolId, newPrices[symbolId]);
+        }
+        endWrite(stamp);
+    }
+
+    public double get(int symbolId) {
+        return (double) PRICES.getAcquire(prices, symbolId);
+    }
+
+    /**
+     * Starts an optimistic read: waits out a write in progress and returns a stamp for {@link #validate(long)}.
+     */
+    public long startRead() {
+        long stamp;
+        int spins = 0;
+        while (((stamp = (long) SEQUENCE.getAcquire(this)) & 1) != 0) {
+            backOff(++spins);
+        }
+        return stamp;
+    }
+
+    /**
+     * True if nothing was written since the stamp was taken, i.e. the values read since then are consistent.
+     */
+    public boolean validate(long stamp) {
+        // Keeps the price reads above from moving below the sequence read
+        VarHandle.acquireFence();
+        return (long) SEQUENCE.getOpaque(this) == stamp;
+    }
+
+    /**
+     * Copies a consistent vector of all prices into the array, retrying while writers interfere.
+     *
+     * @return the version of the copied prices, see {@link #version()}
+     */
+    public long snapshot(double[] into) {
+        long stamp;
+        do {
+            stamp = startRead();
+            for (int symbolId = 0; symbolId < into.length; symbolId++) {
+                into[symbolId] = (double) PRICES.getOpaque(prices, symbolId);
+            }
+        } while (!validate(stamp));
+        return stamp >>> 1;
+    }
+
+    /**
+     * Number of completed writes; a reader can poll it to see whether anything changed.
+     */
+    public long version() {
+        return (long) SEQUENCE.getAcquire(this) >>> 1;
+    }
+
+    public int capacity() {
+        return prices.length;
+    }
+
+    private long beginWrite() {
+        int spins = 0;
+        while (true) {
+            long stamp = sequence;
+            if ((stamp & 1) == 0 && SEQUENCE.compareAndSet(this, stamp, stamp + 1)) {
+                return stamp + 1;
+            }
+            backOff(++spins);
+        }
+    }
+
+    private void endWrite(long stamp) {
+        SEQUENCE.setRelease(this, stamp + 1);
+    }
+
+    // A write holds the lock for a few stores, so spin first; yield in case the writer was descheduled mid-write
+    private static void backOff(int spins) {
+        if (spins < 100) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.text.DecimalFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-tick cost of the simulator's update path, before and after the {@link PriceTable}.
+ *
+ * - legacyTick: what the old GetTheStockRunnable simulator did per tick: new DecimalFormat, format, parse,
+ *   dispatch by string.
+ * - priceTableTick: round to cents and write into the price table by symbol id.
+ * - readPrices: read all three prices back, one by one.
+ * - snapshot: read all three prices as one consistent vector, as notifySubscribers does.
+ *
+ * Runs with the GC profiler; look at gc.alloc.rate.norm, which is bytes allocated per operation and should be 0 for
+ * priceTableTick, readPrices and snapshot. The publisher has no subscribers so only the update path is measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PriceTableBenchmark {
+
+    static final String[] STOCKS = {"IBM", "APPLE", "GOOGLE"};
+
+    StockPublisher publisher;
+    double[] snapshot = new double[STOCKS.length];
+    double price;
+    int tick;
+
+    @Setup
+    public void setUp() {
+        publisher = new StockPublisher();
+        price = 197.00;
+    }
+
+    @Benchmark
+    public double legacyTick() {
+        String stock = STOCKS[tick++ % STOCKS.length];
+        double randNum = nextMove();
+        DecimalFormat df = new DecimalFormat("#.##");
+        price = Double.parseDouble(df.format((price + randNum)));
+        if (stock.equals("IBM")) publisher.setIbmPrice(price);
+        if (stock.equals("APPLE")) publisher.setApplePrice(price);
+        if (stock.equals("GOOGLE")) publisher.setGooglePrice(price);
+        return price;
+    }
+
+    @Benchmark
+    public double priceTableTick() {
+        int symbolId = tick++ % STOCKS.length;
+        price = MarketDataLoadGenerator.roundToCents(price + nextMove());
+        publisher.setPrice(symbolId, price);
+        return price;
+    }
+
+    @Benchmark
+    public double readPrices() {
+        return publisher.getPrice(StockPublisher.IBM)
+                + publisher.getPrice(StockPublisher.APPLE)
+                + publisher.getPrice(StockPublisher.GOOGLE);
+    }
+
+    @Benchmark
+    public double snapshot() {
+        publisher.snapshot(snapshot);
+        return snapshot[StockPublisher.IBM] + snapshot[StockPublisher.APPLE] + snapshot[StockPublisher.GOOGLE];
+    }
+
+    // Deterministic stand-in for Math.random() so both paths do the same arithmetic
+    private double nextMove() {
+        return Math.floorMod(tick * 7919, 600) / 10_000.0 - .03;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PriceTableBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -1,7 +1,7 @@
 package org.kmt.lld.design.old.behavorial.observer;
 
 public interface Publisher {
-    public void register(Subscriber s);
+    public Subscription register(Subscriber s);
     public void unregister(Subscriber s);
     public void notifySubscribers();
 }
@@ -0,0 +1,93 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import org.kmt.lld.design.patterns.behavorial.observer.SlotSubscriberRegistry;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Local stand-in for a StockPublisher running in another JVM.
+ *
+ * Connects to a {@link TickFanoutServer}, decodes the {@link TickFrame}s it receives and notifies local subscribers
+ * with them, so subscribers cannot tell a remote publisher from a local one. Reading happens on a virtual thread,
+ * many frames per read call.
+ */
+public class RemoteStockPublisher implements Publisher, AutoCloseable {
+
+    private final SocketChannel channel;
+    private final SlotSubscriberRegistry<Subscriber> subscribers = new SlotSubscriberRegistry<>();
+    private final Thread reader;
+    private volatile double ibmPrice;
+    private volatile double applePrice;
+    private volatile double googlePrice;
+    private volatile long lastSequence = -1;
+
+    RemoteStockPublisher(InetSocketAddress server) throws IOException {
+        this.channel = SocketChannel.open(server);
+        channel.socket().setTcpNoDelay(true);
+        this.reader = Thread.ofVirtual().name("remote-stock-reader").start(this::read);
+    }
+
+    private void read() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        Subscriber dispatcher = (ibm, apple, google) -> {
+            ibmPrice = ibm;
+            applePrice = apple;
+            googlePrice = google;
+            notifySubscribers();
+        };
+        try {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                long sequence = TickFrame.decode(buffer, dispatcher);
+                if (sequence >= 0) {
+                    lastSequence = sequence;
+                }
+                buffer.compact();
+            }
+        } catch (IOException e) {
+            // connection closed, by us or by the server
+        }
+    }
+
+    /**
+     * Sequence number of the last update received; the server numbers updates from 1.
+     */
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    public boolean isConnected() {
+        return reader.isAlive();
+    }
+
+    @Override
+    public Subscription register(Subscriber s) {
+        return subscribers.register(s)::cancel;
+    }
+
+    @Override
+    public void unregister(Subscriber s) {
+        subscribers.remove(s);
+    }
+
+    @Override
+    public void notifySubscribers() {
+        double ibm = ibmPrice;
+        double apple = applePrice;
+        double google = googlePrice;
+        subscribers.forEach(s -> s.update(ibm, apple, google));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        try {
+            reader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
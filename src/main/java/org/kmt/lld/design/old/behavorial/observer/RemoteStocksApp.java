@@ -0,0 +1,78 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import java.io.File;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * End-to-end demo of {@link TickFanoutServer} on loopback.
+ *
+ * Without arguments it starts the publisher and the server in this JVM, launches a few client JVMs, publishes a burst
+ * of updates and waits for the clients to report. Run "client <port>" to start just a client.
+ */
+public class RemoteStocksApp {
+
+    static final int CLIENTS = 3;
+    static final int UPDATES = 100_000;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 2 && args[0].equals("client")) {
+            runClient(Integer.parseInt(args[1]));
+        } else {
+            runServer();
+        }
+    }
+
+    static void runServer() throws Exception {
+        StockPublisher stockPublisher = new StockPublisher();
+        List<Process> clients = new ArrayList<>();
+        try (TickFanoutServer server = new TickFanoutServer(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024 * 1024)) {
+            stockPublisher.register(server);
+
+            for (int i = 0; i < CLIENTS; i++) {
+                clients.add(startClientJvm(server.port()));
+            }
+            while (server.connectionCount() < CLIENTS) {
+                Thread.sleep(10);
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < UPDATES; i++) {
+                stockPublisher.setPrice(i % 3, 100 + (i % 1000) / 100.0);
+            }
+            System.out.println("Published " + UPDATES + " updates in " + (System.nanoTime() - start) / 1_000_000
+                    + " ms, slow clients disconnected: " + server.slowClientsDisconnected());
+
+            Thread.sleep(1000); // let the last batches go out before closing the connections
+        }
+        // Closing the server ends the clients' streams
+        for (Process client : clients) {
+            client.waitFor();
+        }
+    }
+
+    static Process startClientJvm(int port) throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                RemoteStocksApp.class.getName(), "client", String.valueOf(port))
+                .inheritIO()
+                .start();
+    }
+
+    static void runClient(int port) throws Exception {
+        LongAdder received = new LongAdder();
+        try (RemoteStockPublisher remote = new RemoteStockPublisher(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port))) {
+            remote.register((ibmPrice, applePrice, googlePrice) -> received.increment());
+            while (remote.isConnected()) {
+                Thread.sleep(10);
+            }
+            System.out.println("Client " + ProcessHandle.current().pid() + " received " + received.sum()
+                    + " updates, last sequence " + remote.lastSequence());
+        }
+    }
+}
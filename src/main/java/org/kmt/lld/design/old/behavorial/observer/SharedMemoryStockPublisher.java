@@ -0,0 +1,125 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import org.kmt.lld.design.patterns.behavorial.observer.SlotSubscriberRegistry;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Local stand-in for a StockPublisher in another process on the same host, fed by a {@link SharedMemoryTickWriter}.
+ *
+ * A reader thread polls the shared ring and notifies local subscribers with each update, reading the prices in place.
+ * It starts with the updates published after it connected, like {@link RemoteStockPublisher}.
+ *
+ * While updates keep coming the reader thread spins, so an update reaches subscribers without any system call; the
+ * cross-process latency is then the time for a cache line to move between cores. When the ring stays empty it backs
+ * off to yielding and then to parking for {@link #IDLE_PARK_NANOS}, trading latency for an idle CPU. Spinning only
+ * pays off when the reader has a core to itself.
+ */
+public class SharedMemoryStockPublisher implements Publisher, AutoCloseable {
+
+    static final int SPINS_BEFORE_YIELD = 10_000;
+    static final int YIELDS_BEFORE_PARK = 100;
+    static final long IDLE_PARK_NANOS = 50_000;
+
+    private static final int BATCH = 256;
+
+    private final SharedMemoryTickRing ring;
+    private final SharedMemoryTickRing.Reader ringReader;
+    private final SlotSubscriberRegistry<Subscriber> subscribers = new SlotSubscriberRegistry<>();
+    private final Thread reader;
+    private volatile double ibmPrice;
+    private volatile double applePrice;
+    private volatile double googlePrice;
+    private volatile long lastSequence;
+    private volatile long lastPublishNanos;
+    private volatile long missed;
+    private volatile boolean running = true;
+
+    SharedMemoryStockPublisher(Path file) throws IOException {
+        this.ring = SharedMemoryTickRing.open(file);
+        this.ringReader = ring.reader();
+        this.reader = new Thread(this::read, "shared-memory-stock-reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    private void read() {
+        Subscriber dispatcher = (ibm, apple, google) -> {
+            ibmPrice = ibm;
+            applePrice = apple;
+            googlePrice = google;
+            lastSequence = ringReader.next() - 1;
+            lastPublishNanos = ringReader.lastPublishNanos();
+            notifySubscribers();
+        };
+        int idle = 0;
+        while (running) {
+            if (ringReader.poll(dispatcher, BATCH) > 0) {
+                idle = 0;
+                if (missed != ringReader.missed()) {
+                    missed = ringReader.missed();
+                }
+            } else if (idle < SPINS_BEFORE_YIELD) {
+                idle++;
+                Thread.onSpinWait();
+            } else if (idle < SPINS_BEFORE_YIELD + YIELDS_BEFORE_PARK) {
+                idle++;
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Sequence of the last update received; the writer numbers updates from 1.
+     */
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Updates lost because this reader fell more than the ring's capacity behind.
+     */
+    public long missed() {
+        return missed;
+    }
+
+    /**
+     * System.nanoTime of the writing process when it published the update subscribers are being notified with.
+     */
+    public long lastPublishNanos() {
+        return lastPublishNanos;
+    }
+
+    @Override
+    public Subscription register(Subscriber s) {
+        return subscribers.register(s)::cancel;
+    }
+
+    @Override
+    public void unregister(Subscriber s) {
+        subscribers.remove(s);
+    }
+
+    @Override
+    public void notifySubscribers() {
+        double ibm = ibmPrice;
+        double apple = applePrice;
+        double google = googlePrice;
+        subscribers.forEach(s -> s.update(ibm, apple, google));
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            reader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ring.close();
+    }
+}
@@ -0,0 +1,126 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import org.kmt.lld.design.patterns.behavorial.observer.LatencyHistogram;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end demo of {@link SharedMemoryTickWriter} and {@link SharedMemoryStockPublisher}.
+ *
+ * Without arguments it creates the ring (in /dev/shm when there is one), starts the StockPublisher in this JVM,
+ * launches a few consumer JVMs and publishes a paced stream of updates; each consumer reports how many updates it got
+ * and the publish-to-callback latency it saw. Run "consumer <ring file>" to start just a consumer.
+ *
+ * Latencies are only meaningful when every process has a core of its own.
+ */
+public class SharedMemoryStocksApp {
+
+    static final int CONSUMERS = 3;
+    static final int UPDATES = 100_000;
+    static final int RING_CAPACITY = 1 << 16;
+    static final long PUBLISH_INTERVAL_NANOS = 5_000;
+    static final long ATTACH_TIMEOUT_MILLIS = 30_000;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 2 && args[0].equals("consumer")) {
+            runConsumer(Path.of(args[1]));
+        } else {
+            runPublisher();
+        }
+    }
+
+    static void runPublisher() throws Exception {
+        Path shm = Path.of("/dev/shm");
+        Path directory = Files.createTempDirectory(Files.isDirectory(shm) ? shm : Path.of(System.getProperty(
+                "java.io.tmpdir")), "stocks-ring");
+        Path ring = directory.resolve("stocks.ring");
+        StockPublisher stockPublisher = new StockPublisher();
+        try (SharedMemoryTickWriter writer = new SharedMemoryTickWriter(ring, RING_CAPACITY)) {
+            stockPublisher.register(writer);
+
+            List<Process> consumers = new ArrayList<>();
+            for (int i = 0; i < CONSUMERS; i++) {
+                consumers.add(startConsumerJvm(ring));
+            }
+            // Consumers only see updates published after they attached; each one leaves a marker file when it has
+            awaitConsumers(directory, consumers);
+
+            long start = System.nanoTime();
+            for (int i = 0; i < UPDATES; i++) {
+                long due = start + i * PUBLISH_INTERVAL_NANOS;
+                while (System.nanoTime() < due) {
+                    Thread.onSpinWait();
+                }
+                stockPublisher.setPrice(i % 3, 100 + (i % 1000) / 100.0);
+            }
+            System.out.println("Published " + writer.lastSequence() + " updates in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+
+            for (Process consumer : consumers) {
+                consumer.waitFor();
+            }
+        } finally {
+            try (var files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    // Fails instead of waiting forever when a consumer dies, or never gets as far as attaching
+    static void awaitConsumers(Path directory, List<Process> consumers) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ATTACH_TIMEOUT_MILLIS);
+        while (readyConsumers(directory) < consumers.size()) {
+            for (Process consumer : consumers) {
+                if (!consumer.isAlive()) {
+                    consumers.forEach(Process::destroy);
+                    throw new IllegalStateException("consumer " + consumer.pid() + " exited with code "
+                            + consumer.exitValue() + " before attaching");
+                }
+            }
+            if (System.nanoTime() - deadline > 0) {
+                consumers.forEach(Process::destroy);
+                throw new IllegalStateException("consumers did not attach within " + ATTACH_TIMEOUT_MILLIS + " ms");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    static long readyConsumers(Path directory) throws Exception {
+        try (var files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".ready")).count();
+        }
+    }
+
+    static Process startConsumerJvm(Path ring) throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                SharedMemoryStocksApp.class.getName(), "consumer", ring.toString())
+                .inheritIO()
+                .start();
+    }
+
+    static void runConsumer(Path ring) throws Exception {
+        LatencyHistogram latencies = new LatencyHistogram();
+        try (SharedMemoryStockPublisher publisher = new SharedMemoryStockPublisher(ring)) {
+            publisher.register((ibmPrice, applePrice, googlePrice) ->
+                    latencies.record(System.nanoTime() - publisher.lastPublishNanos()));
+            Files.createFile(ring.resolveSibling(ProcessHandle.current().pid() + ".ready"));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (publisher.lastSequence() < UPDATES && System.nanoTime() < deadline) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+            }
+            System.out.println("Consumer " + ProcessHandle.current().pid() + " received " + latencies.count()
+                    + " updates, missed " + publisher.missed() + ", latency " + latencies);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Ring buffer of StockPublisher updates in a memory-mapped file, written by one process and read by any number of
+ * processes on the same host.
+ *
+ * Layout (native byte order):
+ *
+ *   header:  magic (int) | capacity (int) | record size (int) | ... | cursor (long) at offset 64
+ *   records: capacity records of 64 bytes (one cache line), starting at offset 128
+ *   record:  sequence (long) | publish time (long, System.nanoTime) | ibm | apple | google (doubles) | padding
+ *
+ * Sequences start at 1; update n goes into record n % capacity. The writer marks the record as being written, fills
+ * in the prices and then stores the record's sequence with release semantics; the cursor is updated last. A reader
+ * waits for the record of the sequence it expects to carry that sequence, reads the prices in place and checks the
+ * sequence again: if it changed, the writer went round the ring and overwrote the record while it was read.
+ *
+ * Nothing ever blocks the writer. A reader that falls more than capacity updates behind has lost the updates in
+ * between; it skips to the newest one and counts the rest as missed (prices are state, so the latest is what
+ * matters), the same way {@link TickFanoutServer} drops clients that cannot keep up.
+ *
+ * Publishing and reading are plain memory accesses with no system calls; the page cache shares the mapping between
+ * the processes. Put the file on a memory file system (/dev/shm) so the kernel never writes it back to disk.
+ */
+final class SharedMemoryTickRing implements AutoCloseable {
+
+    static final int RECORD_SIZE = 64;
+
+    private static final int MAGIC = 0x5449434B; // "TICK"
+    private static final int MAGIC_OFFSET = 0;
+    private static final int CAPACITY_OFFSET = 4;
+    private static final int RECORD_SIZE_OFFSET = 8;
+    // On its own cache line, away from the read-only header fields
+    private static final int CURSOR_OFFSET = 64;
+    private static final int HEADER_SIZE = 128;
+
+    private static final int SEQUENCE = 0;
+    private static final int PUBLISH_NANOS = 8;
+    private static final int IBM = 16;
+    private static final int APPLE = 24;
+    private static final int GOOGLE = 32;
+
+    // Written while a record is being overwritten; never a valid sequence
+    private static final long WRITING = -1;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class,
+            ByteOrder.nativeOrder());
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class,
+            ByteOrder.nativeOrder());
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int mask;
+    // Writer only
+    private long sequence;
+
+    private SharedMemoryTickRing(FileChannel channel, MappedByteBuffer buffer, int capacity) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.buffer.order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Creates (or recreates) the ring file for the writer.
+     *
+     * @param capacity number of records, a power of two
+     */
+    static SharedMemoryTickRing create(Path file, int capacity) throws IOException {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = HEADER_SIZE + (long) capacity * RECORD_SIZE;
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        SharedMemoryTickRing ring = new SharedMemoryTickRing(channel, buffer, capacity);
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        buffer.putInt(RECORD_SIZE_OFFSET, RECORD_SIZE);
+        // Readers wait for the magic number, so it goes last
+        INTS.setRelease(buffer, MAGIC_OFFSET, MAGIC);
+        return ring;
+    }
+
+    /**
+     * Opens a ring file created by a writer, for reading.
+     */
+    static SharedMemoryTickRing open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+        header.order(ByteOrder.nativeOrder());
+        if ((int) INTS.getAcquire(header, MAGIC_OFFSET) != MAGIC
+                || header.getInt(RECORD_SIZE_OFFSET) != RECORD_SIZE) {
+            channel.close();
+            throw new IOException("not a tick ring: " + file);
+        }
+        int capacity = header.getInt(CAPACITY_OFFSET);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                HEADER_SIZE + (long) capacity * RECORD_SIZE);
+        return new SharedMemoryTickRing(channel, buffer, capacity);
+    }
+
+    /**
+     * Appends an update. Only one thread of one process may publish.
+     *
+     * @return the update's sequence
+     */
+    long publish(double ibmPrice, double applePrice, double googlePrice) {
+        long next = ++sequence;
+        int record = offset(next);
+        LONGS.setOpaque(buffer, record + SEQUENCE, WRITING);
+        // Keeps the price stores below from becoming visible before the record is marked
+        VarHandle.storeStoreFence();
+        buffer.putLong(record + PUBLISH_NANOS, System.nanoTime());
+        buffer.putDouble(record + IBM, ibmPrice);
+        buffer.putDouble(record + APPLE, applePrice);
+        buffer.putDouble(record + GOOGLE, googlePrice);
+        LONGS.setRelease(buffer, record + SEQUENCE, next);
+        LONGS.setRelease(buffer, CURSOR_OFFSET, next);
+        return next;
+    }
+
+    /**
+     * Sequence of the last update published, 0 if none.
+     */
+    long cursor() {
+        return (long) LONGS.getAcquire(buffer, CURSOR_OFFSET);
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * A reader that starts after the last update published so far.
+     */
+    Reader reader() {
+        return new Reader(cursor() + 1);
+    }
+
+    private int offset(long sequence) {
+        return HEADER_SIZE + (int) (sequence & mask) * RECORD_SIZE;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // The mapping itself goes away when the buffer is garbage collected
+        channel.close();
+    }
+
+    /**
+     * Reads updates in order. Not thread-safe; every reading thread needs its own reader.
+     */
+    final class Reader {
+        private long next;
+        private long missed;
+        private long lastPublishNanos;
+
+        private Reader(long next) {
+            this.next = next;
+        }
+
+        /**
+         * Passes up to limit of the updates published since the last call to the subscriber, straight from the
+         * shared records.
+         *
+         * @return the number of updates passed
+         */
+        int poll(Subscriber subscriber, int limit) {
+            int delivered = 0;
+            while (delivered < limit) {
+                int record = offset(next);
+                long stamp = (long) LONGS.getAcquire(buffer, record + SEQUENCE);
+                if (stamp != next) {
+                    if (stamp > next || cursor() - next >= capacity) {
+                        skipToNewest();
+                        continue;
+                    }
+                    return delivered; // not published yet, or being written
+                }
+                long publishNanos = buffer.getLong(record + PUBLISH_NANOS);
+                double ibmPrice = buffer.getDouble(record + IBM);
+                double applePrice = buffer.getDouble(record + APPLE);
+                double googlePrice = buffer.getDouble(record + GOOGLE);
+                // Keeps the price loads above from moving below the second sequence check
+                VarHandle.loadLoadFence();
+                if ((long) LONGS.getOpaque(buffer, record + SEQUENCE) != next) {
+                    skipToNewest(); // overwritten while we read it
+                    continue;
+                }
+                lastPublishNanos = publishNanos;
+                next++;
+                delivered++;
+                subscriber.update(ibmPrice, applePrice, googlePrice);
+            }
+            return delivered;
+        }
+
+        private void skipToNewest() {
+            long newest = cursor();
+            if (newest >= next) {
+                missed += newest - next;
+                next = newest;
+            }
+        }
+
+        /**
+         * Sequence of the next update this reader will pass on.
+         */
+        long next() {
+            return next;
+        }
+
+        /**
+         * Updates skipped because the writer overwrote them before they were read.
+         */
+        long missed() {
+            return missed;
+        }
+
+        /**
+         * System.nanoTime of the writer when it published the last update passed on; comparable with this process's
+         * System.nanoTime on the same host.
+         */
+        long lastPublishNanos() {
+            return lastPublishNanos;
+        }
+    }
+}
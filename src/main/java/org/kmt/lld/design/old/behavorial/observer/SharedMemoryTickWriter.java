@@ -0,0 +1,43 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Publishes StockPublisher updates to subscribers in other processes on the same host through a
+ * {@link SharedMemoryTickRing}.
+ *
+ * Like {@link TickFanoutServer} it is an ordinary {@link Subscriber}: register it with a StockPublisher and every
+ * update is written into the shared ring. Consumers read it with {@link SharedMemoryStockPublisher}. Nothing is
+ * serialized or sent: an update is five stores into a mapped page, and consumers that fall behind lose updates
+ * instead of slowing the writer down.
+ */
+public class SharedMemoryTickWriter implements Subscriber, AutoCloseable {
+
+    private final SharedMemoryTickRing ring;
+
+    /**
+     * @param capacity updates the ring holds, a power of two; how far behind a consumer may fall
+     */
+    SharedMemoryTickWriter(Path file, int capacity) throws IOException {
+        this.ring = SharedMemoryTickRing.create(file, capacity);
+    }
+
+    // The ring has a single writer; publishers on several threads take turns
+    @Override
+    public synchronized void update(double ibmPrice, double applePrice, double googlePrice) {
+        ring.publish(ibmPrice, applePrice, googlePrice);
+    }
+
+    /**
+     * Sequence of the last update written; updates are numbered from 1.
+     */
+    public long lastSequence() {
+        return ring.cursor();
+    }
+
+    @Override
+    public void close() throws IOException {
+        ring.close();
+    }
+}
@@ -0,0 +1,205 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+/**
+ * Open/high/low/close, VWAP and volume of one symbol over a sliding time window, maintained tick by tick.
+ *
+ * The window is divided into a fixed number of buckets (the window slides one bucket at a time) and each bucket
+ * keeps its own small aggregate in preallocated arrays, so memory does not depend on how many ticks arrive.
+ *
+ * - High and low come from monotonic deques of buckets: the max deque only holds buckets whose high is larger than
+ *   that of every newer bucket, so its front is the window's high. Each bucket enters and leaves a deque at most
+ *   once per extreme it sets, which makes a tick O(1) amortized.
+ * - VWAP and volume are running sums; a bucket's contribution is subtracted when it leaves the window.
+ * - Open is the first price of the oldest bucket still in the window, close the last price seen.
+ *
+ * Not thread-safe; {@link OhlcAggregator} serializes access.
+ */
+final class SlidingWindowBar {
+
+    private final long bucketMillis;
+    private final int buckets;
+
+    // Per bucket, indexed by bucket number modulo buckets
+    private final double[] opens;
+    private final double[] highs;
+    private final double[] lows;
+    private final double[] priceVolumes;
+    private final double[] volumes;
+
+    // Bucket numbers: those with ticks, oldest first, and the two monotonic deques
+    private final BucketDeque live;
+    private final BucketDeque maxima;
+    private final BucketDeque minima;
+
+    private double close = Double.NaN;
+    private double sumPriceVolume;
+    private double sumVolume;
+
+    SlidingWindowBar(long windowMillis, int buckets) {
+        this.bucketMillis = Math.max(1, windowMillis / buckets);
+        this.buckets = buckets;
+        this.opens = new double[buckets];
+        this.highs = new double[buckets];
+        this.lows = new double[buckets];
+        this.priceVolumes = new double[buckets];
+        this.volumes = new double[buckets];
+        this.live = new BucketDeque(buckets);
+        this.maxima = new BucketDeque(buckets);
+        this.minima = new BucketDeque(buckets);
+    }
+
+    void onTick(long timestamp, double price, double volume) {
+        long bucket = Math.floorDiv(timestamp, bucketMillis);
+        if (!live.isEmpty() && bucket < live.last()) {
+            bucket = live.last(); // late tick: count it in the newest bucket
+        }
+        expire(bucket);
+        int slot = slot(bucket);
+        if (live.isEmpty() || live.last() != bucket) {
+            live.addLast(bucket);
+            opens[slot] = price;
+            highs[slot] = price;
+            lows[slot] = price;
+            priceVolumes[slot] = 0;
+            volumes[slot] = 0;
+            pushMax(bucket, price);
+            pushMin(bucket, price);
+        } else {
+            if (price > highs[slot]) {
+                highs[slot] = price;
+                maxima.removeLast(); // the newest bucket is always last; re-add it at its new rank
+                pushMax(bucket, price);
+            }
+            if (price < lows[slot]) {
+                lows[slot] = price;
+                minima.removeLast();
+                pushMin(bucket, price);
+            }
+        }
+        priceVolumes[slot] += price * volume;
+        volumes[slot] += volume;
+        sumPriceVolume += price * volume;
+        sumVolume += volume;
+        close = price;
+    }
+
+    private void pushMax(long bucket, double high) {
+        while (!maxima.isEmpty() && highs[slot(maxima.last())] <= high) {
+            maxima.removeLast();
+        }
+        maxima.addLast(bucket);
+    }
+
+    private void pushMin(long bucket, double low) {
+        while (!minima.isEmpty() && lows[slot(minima.last())] >= low) {
+            minima.removeLast();
+        }
+        minima.addLast(bucket);
+    }
+
+    /**
+     * Drops the buckets that are out of the window once the given bucket is the newest.
+     */
+    void expire(long newestBucket) {
+        long oldestKept = newestBucket - buckets + 1;
+        while (!live.isEmpty() && live.first() < oldestKept) {
+            int slot = slot(live.removeFirst());
+            sumPriceVolume -= priceVolumes[slot];
+            sumVolume -= volumes[slot];
+        }
+        if (live.isEmpty()) {
+            // Nothing left: start the sums from exactly zero again instead of carrying rounding errors
+            sumPriceVolume = 0;
+            sumVolume = 0;
+        }
+        while (!maxima.isEmpty() && maxima.first() < oldestKept) {
+            maxima.removeFirst();
+        }
+        while (!minima.isEmpty() && minima.first() < oldestKept) {
+            minima.removeFirst();
+        }
+    }
+
+    /**
+     * Moves the window to end at the given time, even if no tick arrived since.
+     */
+    void advanceTo(long timestamp) {
+        expire(Math.floorDiv(timestamp, bucketMillis));
+    }
+
+    boolean isEmpty() {
+        return live.isEmpty();
+    }
+
+    double open() {
+        return live.isEmpty() ? Double.NaN : opens[slot(live.first())];
+    }
+
+    double high() {
+        return maxima.isEmpty() ? Double.NaN : highs[slot(maxima.first())];
+    }
+
+    double low() {
+        return minima.isEmpty() ? Double.NaN : lows[slot(minima.first())];
+    }
+
+    double close() {
+        return live.isEmpty() ? Double.NaN : close;
+    }
+
+    double vwap() {
+        return sumVolume > 0 ? sumPriceVolume / sumVolume : Double.NaN;
+    }
+
+    double volume() {
+        return sumVolume;
+    }
+
+    private int slot(long bucket) {
+        return (int) Math.floorMod(bucket, (long) buckets);
+    }
+
+    // Fixed-capacity deque of bucket numbers
+    private static final class BucketDeque {
+        private final long[] items;
+        private int head;
+        private int size;
+
+        BucketDeque(int capacity) {
+            items = new long[capacity];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        long first() {
+            return items[head];
+        }
+
+        long last() {
+            return items[index(size - 1)];
+        }
+
+        void addLast(long bucket) {
+            items[index(size)] = bucket;
+            size++;
+        }
+
+        long removeFirst() {
+            long bucket = items[head];
+            head = index(1);
+            size--;
+            return bucket;
+        }
+
+        void removeLast() {
+            size--;
+        }
+
+        private int index(int offset) {
+            int index = head + offset;
+            return index >= items.length ? index - items.length : index;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import java.time.Duration;
+
+public class StockLoadTestApp {
+    public static void main(String[] args) throws InterruptedException {
+        int symbols = 10_000;
+        SymbolStockPublisher stockPublisher = new SymbolStockPublisher();
+        for (int i = 0; i < symbols; i++) {
+            String symbol = "SYM" + i;
+            stockPublisher.symbols().id(symbol); // ids 0..symbols-1, matching the generator's symbol ids
+            for (int subscriber = 0; subscriber < 4; subscriber++) {
+                stockPublisher.subscribe(symbol, (name, price) -> { });
+            }
+        }
+
+        // Unthrottled: how many ticks per second can the publish path take?
+        System.out.println("max rate:  " + MarketDataLoadGenerator.builder()
+                .symbols(symbols)
+                .build()
+                .run(stockPublisher::publish, Duration.ofSeconds(5)));
+
+        // Fixed rate in bursts of 1000: what does latency look like at a given load?
+        System.out.println("1M/s burst: " + MarketDataLoadGenerator.builder()
+                .symbols(symbols)
+                .ticksPerSecond(1_000_000)
+                .burstSize(1_000)
+                .build()
+                .run(stockPublisher::publish, Duration.ofSeconds(5)));
+    }
+}
@@ -1,49 +1,115 @@
 package org.kmt.lld.design.old.behavorial.observer;
 
-import java.util.ArrayList;
+import org.kmt.lld.design.patterns.behavorial.observer.SlotSubscriberRegistry;
+import org.kmt.lld.design.patterns.behavorial.observer.SubscriberRegistry;
 
 public class StockPublisher implements Publisher{
 
-    ArrayList<Subscriber> subscribers;
-    double ibmPrice;
-    double applePrice;
-    double googlePrice;
+    // Symbol ids of the tickers this publisher knows, used as indexes into the price table
+    public static final int IBM = 0;
+    public static final int APPLE = 1;
+    public static final int GOOGLE = 2;
+
+    final SubscriberRegistry<Subscriber> subscribers;
+    final PriceTable prices = new PriceTable(3);
 
     StockPublisher(){
-        subscribers = new ArrayList<>();
+        this(new SlotSubscriberRegistry<>());
+    }
+
+    /**
+     * Uses the given registry for subscribers, e.g. a WeakSubscriberRegistry so that subscribers nobody unregisters
+     * are dropped once they are garbage collected.
+     */
+    StockPublisher(SubscriberRegistry<Subscriber> subscribers){
+        this.subscribers = subscribers;
     }
 
+    /**
+     * With the default registry the returned subscription unregisters in O(1); with other registries cancelling it
+     * is the same as {@link #unregister(Subscriber)}.
+     */
     @Override
-    public void register(Subscriber s) {
+    public Subscription register(Subscriber s) {
+        if (subscribers instanceof SlotSubscriberRegistry<Subscriber> slots) {
+            SlotSubscriberRegistry.Handle handle = slots.register(s);
+            return () -> {
+                if (handle.cancel()) {
+                    System.out.println("Subscriber deleted");
+                }
+            };
+        }
         subscribers.add(s);
+        return () -> unregister(s);
     }
 
     @Override
     public void unregister(Subscriber s) {
-        int subscriberIndex = subscribers.indexOf(s);
-        subscribers.remove(subscriberIndex);
-        System.out.println("Subscriber " + (subscriberIndex+1) + " deleted");
+        if (subscribers.remove(s)) {
+            System.out.println("Subscriber deleted");
+        }
     }
 
+    /**
+     * Notifies subscribers with one consistent set of prices: never a mix of values from before and after a
+     * concurrent update.
+     */
     @Override
     public void notifySubscribers() {
-        for(Subscriber s : subscribers){
-            s.update(ibmPrice, applePrice, googlePrice);
-        }
+        double ibmPrice;
+        double applePrice;
+        double googlePrice;
+        long stamp;
+        do {
+            stamp = prices.startRead();
+            ibmPrice = prices.get(IBM);
+            applePrice = prices.get(APPLE);
+            googlePrice = prices.get(GOOGLE);
+        } while (!prices.validate(stamp));
+        dispatch(stamp >>> 1, ibmPrice, applePrice, googlePrice);
     }
 
-    public void setIbmPrice(double ibmPrice) {
-        this.ibmPrice = ibmPrice;
+    // Hands one consistent price vector, and the price table version it was read at, to the subscribers
+    void dispatch(long version, double ibmPrice, double applePrice, double googlePrice) {
+        subscribers.forEach(s -> s.update(ibmPrice, applePrice, googlePrice));
+    }
+
+    public double getPrice(int symbolId) {
+        return prices.get(symbolId);
+    }
+
+    /**
+     * Copies a consistent vector of the prices, indexed by symbol id, without taking a lock; safe to call from any
+     * number of threads while prices are being updated.
+     *
+     * @return the version of the prices, which goes up with every update
+     */
+    public long snapshot(double[] into) {
+        return prices.snapshot(into);
+    }
+
+    public void setPrice(int symbolId, double price) {
+        prices.set(symbolId, price);
         notifySubscribers();
     }
 
-    public void setApplePrice(double applePrice) {
-        this.applePrice = applePrice;
+    /**
+     * Updates all three prices at once: readers and subscribers see either the old or the new prices, never a mix.
+     */
+    public void setPrices(double ibmPrice, double applePrice, double googlePrice) {
+        prices.setAll(ibmPrice, applePrice, googlePrice);
         notifySubscribers();
     }
 
+    public void setIbmPrice(double ibmPrice) {
+        setPrice(IBM, ibmPrice);
+    }
+
+    public void setApplePrice(double applePrice) {
+        setPrice(APPLE, applePrice);
+    }
+
     public void setGooglePrice(double googlePrice) {
-        this.googlePrice = googlePrice;
-        notifySubscribers();
+        setPrice(GOOGLE, googlePrice);
     }
 }
@@ -1,5 +1,7 @@
 package org.kmt.lld.design.old.behavorial.observer;
 
+import java.util.function.Function;
+
 public class StockSubscriber implements Subscriber{
 
     double ibmPrice;
@@ -9,12 +11,46 @@ public class StockSubscriber implements Subscriber{
     private static int observerIdTracker = 0;
     private int observerId;
     private Publisher stockPublisher;
+    private final PriceSink sink;
+    private final Subscription subscription;
 
     public StockSubscriber(Publisher stockPublisher){
+        this(stockPublisher, PriceSink.CONSOLE);
+    }
+
+    /**
+     * Sends the prices to the given sink instead of printing them on the publisher's thread,
+     * e.g. an {@link AsyncBatchingPriceSink} shared by many subscribers.
+     */
+    public StockSubscriber(Publisher stockPublisher, PriceSink sink){
+        this(stockPublisher, sink, stockPublisher::register);
+    }
+
+    /**
+     * Only receives the price changes the filter lets through, e.g. moves of more than 1%:
+     * {@code PriceFilter.movedBy(PriceFilter.ALL_FIELDS, 0.01)}. The filter runs on the publisher's side.
+     */
+    public StockSubscriber(FilteringStockPublisher stockPublisher, PriceFilter filter){
+        this(stockPublisher, filter, PriceSink.CONSOLE);
+    }
+
+    public StockSubscriber(FilteringStockPublisher stockPublisher, PriceFilter filter, PriceSink sink){
+        this(stockPublisher, sink, s -> stockPublisher.register(s, filter));
+    }
+
+    private StockSubscriber(Publisher stockPublisher, PriceSink sink, Function<Subscriber, Subscription> registration){
         this.stockPublisher = stockPublisher;
+        this.sink = sink;
         this.observerId = ++observerIdTracker;
         System.out.println("New Observer: " + observerId);
-        stockPublisher.register(this);
+        this.subscription = registration.apply(this);
+    }
+
+    /**
+     * Stops receiving prices, in O(1) where the publisher supports it.
+     */
+    public void unsubscribe(){
+        subscription.cancel();
     }
     @Override
     public void update(double ibmPrice, double applePrice, double googlePrice) {
@@ -25,6 +61,6 @@ public class StockSubscriber implements Subscriber{
     }
 
     public void printStockPrices(){
-        System.out.println("ObserverId: " + observerId + "\nibm: " + ibmPrice + "\napple: " + applePrice + "\ngoogle: " + googlePrice + "\n");
+        sink.write(observerId, ibmPrice, applePrice, googlePrice);
     }
 }
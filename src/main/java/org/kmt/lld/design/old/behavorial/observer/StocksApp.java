@@ -1,7 +1,9 @@
 package org.kmt.lld.design.old.behavorial.observer;
 
+import java.time.Duration;
+
 public class StocksApp {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws InterruptedException {
         StockPublisher stockPublisher = new StockPublisher();
         StockSubscriber stockSubscriber1 = new StockSubscriber(stockPublisher);
         stockPublisher.setIbmPrice(10);
@@ -13,21 +15,18 @@ public class StocksApp {
         stockPublisher.setApplePrice(25);
         stockPublisher.setGooglePrice(35);
 
-        stockPublisher.unregister(stockSubscriber1);
+        stockSubscriber1.unsubscribe();
 
         stockPublisher.setIbmPrice(10);
         stockPublisher.setApplePrice(20);
         stockPublisher.setGooglePrice(30);
 
-        Runnable getIBM = new GetTheStockRunnable(stockPublisher, 2, "IBM", 197.00);
-
-        Runnable getAAPL = new GetTheStockRunnable(stockPublisher, 2, "APPLE", 677.60);
-
-        Runnable getGOOG = new GetTheStockRunnable(stockPublisher, 2, "GOOGLE", 676.40);
-
-        new Thread(getIBM).start();
-        new Thread(getAAPL).start();
-        new Thread(getGOOG).start();
-
+        // Random-walk ticks for the three stocks, one every 2 seconds per stock, for 40 seconds
+        MarketDataLoadGenerator.builder()
+                .startPrices(197.00, 677.60, 676.40) // IBM, APPLE, GOOGLE
+                .threads(3)
+                .ticksPerSecond(1.5)
+                .build()
+                .run(stockPublisher::setPrice, Duration.ofSeconds(40));
     }
 }
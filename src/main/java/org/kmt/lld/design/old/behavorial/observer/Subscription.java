@@ -0,0 +1,9 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+/**
+ * Returned by {@link Publisher#register(Subscriber)}. Cancelling it unregisters that registration, without the
+ * publisher having to search for the subscriber.
+ */
+public interface Subscription {
+    public void cancel();
+}
@@ -0,0 +1,117 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import org.kmt.lld.design.patterns.behavorial.observer.CopyOnWriteSubscriberRegistry;
+import org.kmt.lld.design.patterns.behavorial.observer.SlotSubscriberRegistry;
+import org.kmt.lld.design.patterns.behavorial.observer.SubscriberRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of subscriber churn on a StockPublisher: each operation unregisters a random subscriber and registers it
+ * again.
+ *
+ * - COPY_ON_WRITE_UNREGISTER: the previous default, unregister(s) on a CopyOnWriteSubscriberRegistry.
+ * - SLOT_UNREGISTER: unregister(s) on a SlotSubscriberRegistry, still a search for the subscriber.
+ * - SLOT_SUBSCRIPTION: cancelling the Subscription returned by register, O(1).
+ *
+ * "publish" compares notifying through both registries, to check that slot iteration is as fast as walking a
+ * copy-on-write array.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SubscriptionChurnBenchmark {
+
+    public enum Unsubscribe {
+        COPY_ON_WRITE_UNREGISTER, SLOT_UNREGISTER, SLOT_SUBSCRIPTION
+    }
+
+    @Param({"100", "10000", "50000"})
+    int subscriberCount;
+
+    @Param
+    Unsubscribe unsubscribe;
+
+    StockPublisher publisher;
+    Subscriber[] subscribers;
+    Subscription[] subscriptions;
+    SplittableRandom random = new SplittableRandom(42);
+
+    @Setup
+    public void setUp() {
+        publisher = unsubscribe == Unsubscribe.COPY_ON_WRITE_UNREGISTER
+                ? new QuietStockPublisher(new CopyOnWriteSubscriberRegistry<>())
+                : new QuietStockPublisher(new SlotSubscriberRegistry<>());
+        subscribers = new Subscriber[subscriberCount];
+        subscriptions = new Subscription[subscriberCount];
+        // Subscribers are allocated together so that the registries' own objects do not change their memory layout
+        for (int i = 0; i < subscriberCount; i++) {
+            subscribers[i] = new CountingSubscriber();
+        }
+        for (int i = 0; i < subscriberCount; i++) {
+            subscriptions[i] = publisher.register(subscribers[i]);
+        }
+    }
+
+    @Benchmark
+    public void churn() {
+        int i = random.nextInt(subscriberCount);
+        if (unsubscribe == Unsubscribe.SLOT_SUBSCRIPTION) {
+            subscriptions[i].cancel();
+        } else {
+            publisher.unregister(subscribers[i]);
+        }
+        subscriptions[i] = publisher.register(subscribers[i]);
+    }
+
+    @Benchmark
+    public void publish() {
+        publisher.setPrice(StockPublisher.IBM, 100);
+    }
+
+    static final class CountingSubscriber implements Subscriber {
+        long updates;
+
+        @Override
+        public void update(double ibmPrice, double applePrice, double googlePrice) {
+            updates++;
+        }
+    }
+
+    // StockPublisher prints on every unregister, which would swamp the measurement
+    static final class QuietStockPublisher extends StockPublisher {
+        QuietStockPublisher(SubscriberRegistry<Subscriber> registry) {
+            super(registry);
+        }
+
+        @Override
+        public Subscription register(Subscriber s) {
+            if (subscribers instanceof SlotSubscriberRegistry<Subscriber> slots) {
+                return slots.register(s)::cancel;
+            }
+            subscribers.add(s);
+            return () -> subscribers.remove(s);
+        }
+
+        @Override
+        public void unregister(Subscriber s) {
+            subscribers.remove(s);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SubscriptionChurnBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
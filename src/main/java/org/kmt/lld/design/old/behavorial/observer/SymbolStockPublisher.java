@@ -0,0 +1,94 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import org.kmt.lld.design.patterns.behavorial.observer.CopyOnWriteSubscriberRegistry;
+
+import java.util.Arrays;
+
+/**
+ * Publisher with a subscription index from symbol to subscribers.
+ *
+ * StockPublisher broadcasts every change to every subscriber. Here subscribers register for the symbols they care
+ * about, and a tick for a symbol is delivered only to that symbol's subscribers: the cost of a tick is proportional
+ * to the number of interested subscribers, not to the number of subscribers overall. Symbols are turned into dense
+ * ids by a {@link SymbolTable}, so finding a symbol's subscribers is an array lookup.
+ */
+public class SymbolStockPublisher {
+
+    private final SymbolTable symbols;
+    // Indexed by symbol id, grown on demand; slots stay null until someone subscribes to the symbol
+    private volatile CopyOnWriteSubscriberRegistry<SymbolSubscriber>[] subscribersBySymbol = newIndex(64);
+
+    SymbolStockPublisher() {
+        this(new SymbolTable());
+    }
+
+    SymbolStockPublisher(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    public SymbolTable symbols() {
+        return symbols;
+    }
+
+    public void subscribe(String symbol, SymbolSubscriber s) {
+        subscribersOf(symbols.id(symbol)).add(s);
+    }
+
+    public void unsubscribe(String symbol, SymbolSubscriber s) {
+        int id = symbols.lookup(symbol);
+        CopyOnWriteSubscriberRegistry<SymbolSubscriber>[] index = subscribersBySymbol;
+        if (id >= 0 && id < index.length && index[id] != null) {
+            index[id].remove(s);
+        }
+    }
+
+    public void publish(String symbol, double price) {
+        int id = symbols.lookup(symbol);
+        if (id >= 0) {
+            publish(id, price);
+        }
+    }
+
+    /**
+     * Publishes a price for a symbol id obtained from {@link #symbols()}; skips the string lookup.
+     */
+    public void publish(int symbolId, double price) {
+        CopyOnWriteSubscriberRegistry<SymbolSubscriber>[] index = subscribersBySymbol;
+        if (symbolId < index.length && index[symbolId] != null) {
+            String symbol = symbols.name(symbolId);
+            index[symbolId].forEach(s -> s.update(symbol, price));
+        }
+    }
+
+    public int subscriberCount(String symbol) {
+        int id = symbols.lookup(symbol);
+        CopyOnWriteSubscriberRegistry<SymbolSubscriber>[] index = subscribersBySymbol;
+        return id >= 0 && id < index.length && index[id] != null ? index[id].size() : 0;
+    }
+
+    private CopyOnWriteSubscriberRegistry<SymbolSubscriber> subscribersOf(int id) {
+        CopyOnWriteSubscriberRegistry<SymbolSubscriber>[] index = subscribersBySymbol;
+        if (id < index.length && index[id] != null) {
+            return index[id];
+        }
+        synchronized (this) {
+            index = subscribersBySymbol;
+            if (id >= index.length) {
+                index = Arrays.copyOf(index, Math.max(index.length * 2, id + 1));
+            } else if (index[id] != null) {
+                return index[id];
+            } else {
+                index = index.clone();
+            }
+            CopyOnWriteSubscriberRegistry<SymbolSubscriber> registry = new CopyOnWriteSubscriberRegistry<>();
+            index[id] = registry;
+            subscribersBySymbol = index;
+            return registry;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static CopyOnWriteSubscriberRegistry<SymbolSubscriber>[] newIndex(int size) {
+        return new CopyOnWriteSubscriberRegistry[size];
+    }
+}
@@ -0,0 +1,21 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+public class SymbolStocksApp {
+    public static void main(String[] args) {
+        SymbolStockPublisher stockPublisher = new SymbolStockPublisher();
+
+        SymbolSubscriber printer = (symbol, price) -> System.out.println(symbol + ": " + price);
+        stockPublisher.subscribe("IBM", printer);
+        stockPublisher.subscribe("APPLE", printer);
+        // Symbols are not fixed: any ticker can be subscribed to at runtime
+        stockPublisher.subscribe("MSFT", (symbol, price) -> System.out.println("MSFT watcher got " + price));
+
+        stockPublisher.publish("IBM", 197.00);
+        stockPublisher.publish("APPLE", 677.60);
+        stockPublisher.publish("GOOGLE", 676.40); // nobody subscribed, nobody called
+        stockPublisher.publish("MSFT", 410.25);
+
+        stockPublisher.unsubscribe("IBM", printer);
+        stockPublisher.publish("IBM", 198.00); // printer no longer gets IBM
+    }
+}
@@ -0,0 +1,9 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+/**
+ * Subscriber for a single ticker's price. Unlike {@link Subscriber} it is not tied to a fixed set of tickers: the
+ * symbol travels with every update, so new symbols need no interface change.
+ */
+public interface SymbolSubscriber {
+    public void update(String symbol, double price);
+}
@@ -0,0 +1,56 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps ticker symbols to dense int ids (0, 1, 2, ...) so that per-symbol data can live in plain arrays indexed by
+ * id instead of being looked up by string on every tick. Symbols can be added at any time.
+ */
+public class SymbolTable {
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[16];
+    private int size;
+
+    /**
+     * Returns the id of the symbol, assigning the next free id the first time the symbol is seen.
+     */
+    public int id(String symbol) {
+        Integer id = ids.get(symbol);
+        return id != null ? id : register(symbol);
+    }
+
+    /**
+     * Returns the id of the symbol, or -1 if it was never registered.
+     */
+    public int lookup(String symbol) {
+        Integer id = ids.get(symbol);
+        return id != null ? id : -1;
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private synchronized int register(String symbol) {
+        Integer existing = ids.get(symbol);
+        if (existing != null) {
+            return existing;
+        }
+        int id = size;
+        if (id == names.length) {
+            names = Arrays.copyOf(names, id * 2);
+        }
+        names[id] = symbol;
+        // Publishing the name before the id makes name(id) safe for anyone who got the id from the map
+        ids.put(symbol, id);
+        size++;
+        return id;
+    }
+}
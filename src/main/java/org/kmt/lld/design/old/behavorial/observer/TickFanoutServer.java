@@ -0,0 +1,216 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends StockPublisher updates to subscribers in other JVMs over TCP.
+ *
+ * The server is an ordinary {@link Subscriber}: register it with a StockPublisher and every update is encoded as a
+ * {@link TickFrame} into each connection's pending buffer. A single selector thread does all the socket I/O. Each
+ * connection is double-buffered: publishers append to the pending buffer while the selector thread writes the other
+ * one, and the buffers are swapped once a write completes, so everything that piled up meanwhile goes out in a single
+ * write call.
+ *
+ * A client that does not read fast enough eventually fills its pending buffer; it is then disconnected instead of
+ * letting its backlog grow or slowing down the publisher. Remote subscribers connect with
+ * {@link RemoteStockPublisher}.
+ */
+public class TickFanoutServer implements Subscriber, AutoCloseable {
+
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final Thread ioThread;
+    private final int bufferSize;
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder slowClientsDisconnected = new LongAdder();
+    private volatile boolean running = true;
+
+    /**
+     * @param bufferSize bytes a connection may have pending before it counts as a slow client
+     */
+    TickFanoutServer(InetSocketAddress address, int bufferSize) throws IOException {
+        this.bufferSize = bufferSize;
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        server.bind(address);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        this.ioThread = new Thread(this::run, "tick-fanout");
+        ioThread.setDaemon(true);
+        ioThread.start();
+    }
+
+    public int port() throws IOException {
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    public int connectionCount() {
+        return connections.size();
+    }
+
+    public long slowClientsDisconnected() {
+        return slowClientsDisconnected.sum();
+    }
+
+    @Override
+    public void update(double ibmPrice, double applePrice, double googlePrice) {
+        long frameSequence = sequence.incrementAndGet();
+        for (Connection connection : connections) {
+            connection.enqueue(frameSequence, ibmPrice, applePrice, googlePrice);
+        }
+        // One wakeup is enough for any number of updates until the selector thread runs again
+        if (wakeupPending.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                selector.select();
+                wakeupPending.set(false);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else if (key.isReadable()) {
+                        read((Connection) key.attachment());
+                    }
+                }
+                for (Connection connection : connections) {
+                    connection.flush();
+                }
+            } catch (IOException e) {
+                if (running) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        Connection connection = new Connection(channel);
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        connections.add(connection);
+    }
+
+    // Clients never send anything; reading only tells us when they go away
+    private void read(Connection connection) {
+        try {
+            if (connection.channel.read(ByteBuffer.allocate(64)) < 0) {
+                connection.close();
+            }
+        } catch (IOException e) {
+            connection.close();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        try {
+            ioThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Connection connection : connections) {
+            connection.close();
+        }
+        server.close();
+        selector.close();
+    }
+
+    private class Connection {
+        final SocketChannel channel;
+        SelectionKey key;
+        // Filled by publishers under the lock (write mode)
+        private ByteBuffer pending = ByteBuffer.allocateDirect(bufferSize);
+        // Written by the selector thread only (read mode while it has remaining bytes)
+        private ByteBuffer sending = ByteBuffer.allocateDirect(bufferSize).flip();
+        private volatile boolean slow;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        synchronized void enqueue(long frameSequence, double ibmPrice, double applePrice, double googlePrice) {
+            if (slow) {
+                return;
+            }
+            if (pending.remaining() < TickFrame.SIZE) {
+                slow = true; // disconnected by the selector thread
+                return;
+            }
+            TickFrame.encode(pending, frameSequence, ibmPrice, applePrice, googlePrice);
+        }
+
+        // Selector thread only
+        void flush() {
+            if (slow) {
+                slowClientsDisconnected.increment();
+                close();
+                return;
+            }
+            try {
+                if (!sending.hasRemaining()) {
+                    synchronized (this) {
+                        if (pending.position() == 0) {
+                            key.interestOps(SelectionKey.OP_READ);
+                            return;
+                        }
+                        ByteBuffer filled = pending;
+                        pending = sending.clear();
+                        sending = filled.flip();
+                    }
+                }
+                channel.write(sending);
+                // Wait for the socket to drain if the kernel did not take everything
+                key.interestOps(sending.hasRemaining()
+                        ? SelectionKey.OP_READ | SelectionKey.OP_WRITE
+                        : SelectionKey.OP_READ);
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        void close() {
+            connections.remove(this);
+            if (key != null) {
+                key.cancel();
+            }
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
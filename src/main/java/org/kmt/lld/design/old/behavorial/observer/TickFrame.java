@@ -0,0 +1,40 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary frame for one StockPublisher update on the wire: 32 bytes, big-endian.
+ *
+ *   sequence (long) | ibm price (double) | apple price (double) | google price (double)
+ *
+ * Frames have a fixed size, so a stream of them needs no length prefix and a reader can decode as many complete
+ * frames as it has received.
+ */
+final class TickFrame {
+
+    static final int SIZE = 32;
+
+    private TickFrame() {
+    }
+
+    static void encode(ByteBuffer buffer, long sequence, double ibmPrice, double applePrice, double googlePrice) {
+        buffer.putLong(sequence);
+        buffer.putDouble(ibmPrice);
+        buffer.putDouble(applePrice);
+        buffer.putDouble(googlePrice);
+    }
+
+    /**
+     * Decodes every complete frame in the buffer (in read mode) and leaves a trailing partial frame in it.
+     *
+     * @return the sequence of the last frame decoded, or -1 if there was no complete frame
+     */
+    static long decode(ByteBuffer buffer, Subscriber subscriber) {
+        long sequence = -1;
+        while (buffer.remaining() >= SIZE) {
+            sequence = buffer.getLong();
+            subscriber.update(buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+        }
+        return sequence;
+    }
+}
@@ -0,0 +1,165 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only journal of price ticks in a memory-mapped file.
+ *
+ * Layout: a 64 byte header followed by fixed-size 24 byte records.
+ *
+ *   header: magic (int) | version (int) | committed record count (long) | capacity in records (long) | unused
+ *   record: timestamp in epoch millis (long) | symbol id (int) | unused (int) | price (double)
+ *
+ * Appending writes the record straight into the mapped pages and then publishes the new record count with a
+ * release store, so the write path is a handful of memory stores - no system call, no allocation. A reader (in this
+ * process, or in another one mapping the same file) only looks at records below the committed count. The count is
+ * persisted in the file, so reopening a journal continues where it stopped.
+ *
+ * Timestamps never go backwards within a journal, which lets {@link #findRecord(long)} binary-search by time.
+ * The capacity is fixed when the file is created; appending to a full journal fails.
+ */
+public class TickJournal implements AutoCloseable {
+
+    public interface TickHandler {
+        void onTick(long timestamp, int symbolId, double price);
+    }
+
+    static final int MAGIC = 0x54494B4A; // "TIKJ"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 24;
+
+    private static final int COUNT_OFFSET = 8;
+    private static final int CAPACITY_OFFSET = 16;
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long capacity;
+    private long count;
+    private long lastTimestamp;
+
+    /**
+     * Opens the journal, creating the file with room for the given number of records if it does not exist yet.
+     */
+    public TickJournal(Path file, long capacity) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        boolean created = channel.size() == 0;
+        long size = created ? HEADER_SIZE + capacity * RECORD_SIZE : channel.size();
+        if (size > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IllegalArgumentException("journal larger than 2 GB: " + size + " bytes");
+        }
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.order(ByteOrder.nativeOrder());
+        if (created) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(CAPACITY_OFFSET, capacity);
+            LONGS.setRelease(buffer, COUNT_OFFSET, 0L);
+        } else if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            channel.close();
+            throw new IOException("not a tick journal: " + file);
+        }
+        this.capacity = buffer.getLong(CAPACITY_OFFSET);
+        this.count = (long) LONGS.getAcquire(buffer, COUNT_OFFSET);
+        this.lastTimestamp = count == 0 ? Long.MIN_VALUE : timestampAt(count - 1);
+    }
+
+    /**
+     * Appends a tick stamped with the current time.
+     *
+     * @return the index of the new record
+     */
+    public synchronized long append(int symbolId, double price) {
+        if (count == capacity) {
+            throw new IllegalStateException("tick journal is full: " + capacity + " records");
+        }
+        long timestamp = Math.max(System.currentTimeMillis(), lastTimestamp);
+        int offset = offsetOf(count);
+        buffer.putLong(offset, timestamp);
+        buffer.putInt(offset + 8, symbolId);
+        buffer.putDouble(offset + 16, price);
+        lastTimestamp = timestamp;
+        count++;
+        // Publishes the record: readers never look past the committed count
+        LONGS.setRelease(buffer, COUNT_OFFSET, count);
+        return count - 1;
+    }
+
+    /**
+     * Number of records that can be read.
+     */
+    public long recordCount() {
+        return (long) LONGS.getAcquire(buffer, COUNT_OFFSET);
+    }
+
+    /**
+     * Index of the first record at or after the timestamp, or {@link #recordCount()} if there is none.
+     */
+    public long findRecord(long timestamp) {
+        long low = 0;
+        long high = recordCount();
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (timestampAt(middle) < timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Replays records [from, to) to the handler.
+     *
+     * @return the index after the last record replayed
+     */
+    public long replay(long from, long to, TickHandler handler) {
+        long end = Math.min(to, recordCount());
+        for (long record = from; record < end; record++) {
+            int offset = offsetOf(record);
+            handler.onTick(buffer.getLong(offset), buffer.getInt(offset + 8), buffer.getDouble(offset + 16));
+        }
+        return Math.max(from, end);
+    }
+
+    /**
+     * Latest price of the symbol in the records before the given index, or NaN if there is none.
+     */
+    public double priceBefore(long record, int symbolId) {
+        for (long r = Math.min(record, recordCount()) - 1; r >= 0; r--) {
+            int offset = offsetOf(r);
+            if (buffer.getInt(offset + 8) == symbolId) {
+                return buffer.getDouble(offset + 16);
+            }
+        }
+        return Double.NaN;
+    }
+
+    private long timestampAt(long record) {
+        return buffer.getLong(offsetOf(record));
+    }
+
+    private static int offsetOf(long record) {
+        return (int) (HEADER_SIZE + record * RECORD_SIZE);
+    }
+
+    /**
+     * Flushes the mapped pages to disk and closes the file.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+}
@@ -0,0 +1,265 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compressed price history, one column (file) per symbol, for queries like "IBM between t1 and t2".
+ *
+ * Each symbol's ticks go into fixed-size {@link GorillaBlock}s: delta-of-delta timestamps and XOR-compressed prices,
+ * typically a few bytes per tick instead of the 16 of a raw (timestamp, price) pair. Appending only touches the
+ * symbol's open block in memory; a block is written to the symbol's file in one 4 KB write when it fills up.
+ *
+ * Every block's time range is kept in an in-memory index (rebuilt from the block headers when a store is reopened),
+ * so a range scan reads and decompresses only the blocks that overlap the range.
+ *
+ * Timestamps (epoch millis) must not go backwards within a symbol. {@link #flush()} writes the open blocks as they
+ * are, partially filled, and starts new ones; it is meant for checkpoints and close, not for every tick.
+ */
+public class TickStore implements AutoCloseable {
+
+    private final Series[] series;
+    private final LongAdder blocksDecoded = new LongAdder();
+
+    /**
+     * Opens the store in the directory, creating it if needed, with one column per symbol id below symbolCount.
+     */
+    public TickStore(Path directory, int symbolCount) throws IOException {
+        Files.createDirectories(directory);
+        this.series = new Series[symbolCount];
+        for (int symbolId = 0; symbolId < symbolCount; symbolId++) {
+            series[symbolId] = new Series(symbolId, directory.resolve("symbol-" + symbolId + ".ticks"));
+        }
+    }
+
+    public void append(int symbolId, long timestamp, double price) {
+        try {
+            series[symbolId].append(timestamp, price);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Passes the symbol's ticks with from <= timestamp <= to, oldest first, to the handler.
+     *
+     * @return the number of ticks passed to the handler
+     */
+    public long scan(int symbolId, long from, long to, TickJournal.TickHandler handler) throws IOException {
+        return series[symbolId].scan(from, to, handler);
+    }
+
+    /**
+     * A subscriber that records every price that changed, stamped with the current time.
+     */
+    public Subscriber recorder() {
+        return new Recorder();
+    }
+
+    public long tickCount() {
+        long ticks = 0;
+        for (Series column : series) {
+            ticks += column.tickCount();
+        }
+        return ticks;
+    }
+
+    /**
+     * Bytes taken by the ticks, counting the open blocks in full.
+     */
+    public long storedBytes() {
+        long bytes = 0;
+        for (Series column : series) {
+            bytes += column.blockCount() * (long) GorillaBlock.SIZE;
+        }
+        return bytes;
+    }
+
+    /**
+     * Total number of blocks range scans have decompressed.
+     */
+    public long blocksDecoded() {
+        return blocksDecoded.sum();
+    }
+
+    /**
+     * Writes every open block to disk and forces the files.
+     */
+    public void flush() throws IOException {
+        for (Series column : series) {
+            column.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        for (Series column : series) {
+            column.channel.close();
+        }
+    }
+
+    // A block on disk: where it is and which ticks it holds
+    private record BlockRef(long position, long firstTimestamp, long lastTimestamp, int count) {
+    }
+
+    private final class Series {
+        final int symbolId;
+        final FileChannel channel;
+        // Never mutated once published; replaced under the lock when a block is sealed
+        private volatile BlockRef[] sealed;
+        // Guarded by this
+        private final GorillaBlock open = new GorillaBlock();
+        private long nextPosition;
+        private long sealedTicks;
+
+        Series(int symbolId, Path file) throws IOException {
+            this.symbolId = symbolId;
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            // Rebuild the index from the block headers
+            long blocks = channel.size() / GorillaBlock.SIZE;
+            BlockRef[] index = new BlockRef[(int) blocks];
+            ByteBuffer header = ByteBuffer.allocate(GorillaBlock.HEADER_SIZE);
+            for (int i = 0; i < blocks; i++) {
+                long position = (long) i * GorillaBlock.SIZE;
+                channel.read(header.clear(), position);
+                index[i] = new BlockRef(position, GorillaBlock.firstTimestamp(header),
+                        GorillaBlock.lastTimestamp(header), GorillaBlock.count(header));
+                sealedTicks += index[i].count();
+            }
+            this.sealed = index;
+            this.nextPosition = blocks * GorillaBlock.SIZE;
+        }
+
+        synchronized void append(long timestamp, double price) throws IOException {
+            long last = open.count() > 0 ? open.lastTimestamp()
+                    : sealed.length > 0 ? sealed[sealed.length - 1].lastTimestamp() : Long.MIN_VALUE;
+            if (timestamp < last) {
+                throw new IllegalArgumentException("timestamp " + timestamp + " before " + last);
+            }
+            if (!open.append(timestamp, price)) {
+                seal();
+                open.append(timestamp, price);
+            }
+        }
+
+        // Called with the lock held
+        private void seal() throws IOException {
+            if (open.count() == 0) {
+                return;
+            }
+            ByteBuffer block = open.seal();
+            while (block.hasRemaining()) {
+                channel.write(block, nextPosition + block.position());
+            }
+            BlockRef[] current = sealed;
+            BlockRef[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = new BlockRef(nextPosition, open.firstTimestamp(), open.lastTimestamp(),
+                    open.count());
+            sealed = next;
+            sealedTicks += open.count();
+            nextPosition += GorillaBlock.SIZE;
+            open.reset();
+        }
+
+        long scan(long from, long to, TickJournal.TickHandler handler) throws IOException {
+            ByteBuffer block = ByteBuffer.allocate(GorillaBlock.SIZE);
+            BlockRef[] index = sealed;
+            long delivered = 0;
+            for (int i = firstBlockEndingAtOrAfter(index, from); i < index.length; i++) {
+                if (index[i].firstTimestamp() > to) {
+                    return delivered;
+                }
+                delivered += decode(index[i], block, from, to, handler);
+            }
+            synchronized (this) {
+                // Blocks sealed while we were scanning (rare), then the open block, copied so that appends can go on
+                // while it is decoded
+                BlockRef[] now = sealed;
+                for (int i = index.length; i < now.length; i++) {
+                    delivered += decode(now[i], block, from, to, handler);
+                }
+                if (open.count() == 0 || open.lastTimestamp() < from || open.firstTimestamp() > to) {
+                    return delivered;
+                }
+                open.copyTo(block);
+            }
+            blocksDecoded.increment();
+            return delivered + GorillaBlock.decode(block, symbolId, from, to, handler);
+        }
+
+        private int decode(BlockRef ref, ByteBuffer block, long from, long to, TickJournal.TickHandler handler)
+                throws IOException {
+            block.clear();
+            while (block.hasRemaining()) {
+                if (channel.read(block, ref.position() + block.position()) < 0) {
+                    throw new IOException("truncated block at " + ref.position());
+                }
+            }
+            blocksDecoded.increment();
+            return GorillaBlock.decode(block, symbolId, from, to, handler);
+        }
+
+        synchronized long tickCount() {
+            return sealedTicks + open.count();
+        }
+
+        synchronized int blockCount() {
+            return sealed.length + (open.count() > 0 ? 1 : 0);
+        }
+
+        synchronized void flush() throws IOException {
+            seal();
+            channel.force(false);
+        }
+
+        private static int firstBlockEndingAtOrAfter(BlockRef[] index, long timestamp) {
+            int low = 0;
+            int high = index.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (index[middle].lastTimestamp() < timestamp) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    // Turns full-price updates into ticks for the prices that changed
+    private final class Recorder implements Subscriber {
+        private final double[] last = new double[series.length];
+        private long lastTimestamp = Long.MIN_VALUE;
+
+        Recorder() {
+            Arrays.fill(last, Double.NaN);
+        }
+
+        @Override
+        public synchronized void update(double ibmPrice, double applePrice, double googlePrice) {
+            // Publishers on several threads may race; keep the clock from going backwards for the store
+            long timestamp = Math.max(System.currentTimeMillis(), lastTimestamp);
+            lastTimestamp = timestamp;
+            record(StockPublisher.IBM, timestamp, ibmPrice);
+            record(StockPublisher.APPLE, timestamp, applePrice);
+            record(StockPublisher.GOOGLE, timestamp, googlePrice);
+        }
+
+        private void record(int symbolId, long timestamp, double price) {
+            if (symbolId < last.length && Double.compare(last[symbolId], price) != 0) {
+                last[symbolId] = price;
+                append(symbolId, timestamp, price);
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.kmt.lld.design.old.behavorial.observer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+public class TickStoreApp {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path directory = Files.createTempDirectory("tick-store");
+
+        try (TickStore store = new TickStore(directory, 3)) {
+            StockPublisher stockPublisher = new StockPublisher();
+            stockPublisher.register(store.recorder());
+
+            // Three seconds of ticks at 300k/s
+            MarketDataLoadGenerator.Report report = MarketDataLoadGenerator.builder()
+                    .startPrices(197.00, 677.60, 676.40) // IBM, APPLE, GOOGLE
+                    .threads(3)
+                    .ticksPerSecond(300_000)
+                    .burstSize(100)
+                    .build()
+                    .run(stockPublisher::setPrice, Duration.ofSeconds(3));
+            System.out.println("Publisher: " + report);
+            System.out.printf("Stored %,d ticks in %,d bytes: %.2f bytes per tick instead of 16%n",
+                    store.tickCount(), store.storedBytes(), (double) store.storedBytes() / store.tickCount());
+        }
+
+        // Reopen from disk and ask for one second of IBM history
+        try (TickStore store = new TickStore(directory, 3)) {
+            long[] range = {Long.MAX_VALUE, Long.MIN_VALUE};
+            store.scan(StockPublisher.IBM, Long.MIN_VALUE, Long.MAX_VALUE, (timestamp, symbolId, price) -> {
+                range[0] = Math.min(range[0], timestamp);
+                range[1] = Math.max(range[1], timestamp);
+            });
+            long decodedBefore = store.blocksDecoded();
+            double[] high = {Double.NEGATIVE_INFINITY};
+            long ticks = store.scan(StockPublisher.IBM, range[0] + 1_000, range[0] + 1_999,
+                    (timestamp, symbolId, price) -> high[0] = Math.max(high[0], price));
+            System.out.println("IBM ticks in the second second: " + ticks + ", high " + high[0] + ", "
+                    + (store.blocksDecoded() - decodedBefore) + " blocks decompressed");
+        }
+
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+}
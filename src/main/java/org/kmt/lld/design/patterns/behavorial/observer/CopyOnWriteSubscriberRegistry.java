@@ -0,0 +1,117 @@
+package org.kmt.lld.design.patterns.behavorial.observer;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Copy-on-write subscriber registry
+ *
+ * Problem:
+ * A publisher that keeps its subscribers in an ArrayList throws ConcurrentModificationException when one thread
+ * subscribes or unsubscribes while another one is notifying. Locking the list fixes that, but then every publish
+ * is serialized behind the lock.
+ *
+ * Solution:
+ * Subscribers are kept in an immutable array. Readers (notify) just read the current array and iterate it - no lock,
+ * no copy, no allocation. Writers copy the array, apply their change and swap the new array in with a single
+ * compare-and-set. A notification that is already running keeps iterating the snapshot it started with.
+ *
+ * Registration cost is one array copy, O(n) in the number of subscribers, and never blocks publishers. Writers that
+ * lose the CAS race simply retry against the newer snapshot. When many subscribers are registered at once use
+ * {@link #addAll(Collection)}, which pays for a single copy instead of one per subscriber.
+ *
+ * Compared to CopyOnWriteArrayList this registry never takes a lock on the write path and does not create an
+ * Iterator per notification.
+ *
+ * @param <T> the subscriber type
+ */
+public final class CopyOnWriteSubscriberRegistry<T> implements SubscriberRegistry<T> {
+
+    private static final Object[] EMPTY = new Object[0];
+    private static final VarHandle SNAPSHOT;
+
+    static {
+        try {
+            SNAPSHOT = MethodHandles.lookup()
+                    .findVarHandle(CopyOnWriteSubscriberRegistry.class, "snapshot", Object[].class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // Never mutated once published, a new array is swapped in on every change
+    private volatile Object[] snapshot = EMPTY;
+
+    @Override
+    public void add(T subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        Object[] current;
+        Object[] next;
+        do {
+            current = snapshot;
+            next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = subscriber;
+        } while (!SNAPSHOT.compareAndSet(this, current, next));
+    }
+
+    /**
+     * Adds all subscribers with a single copy of the snapshot.
+     */
+    public void addAll(Collection<? extends T> subscribers) {
+        Object[] added = subscribers.toArray();
+        for (Object subscriber : added) {
+            Objects.requireNonNull(subscriber, "subscriber");
+        }
+        Object[] current;
+        Object[] next;
+        do {
+            current = snapshot;
+            next = Arrays.copyOf(current, current.length + added.length);
+            System.arraycopy(added, 0, next, current.length, added.length);
+        } while (!SNAPSHOT.compareAndSet(this, current, next));
+    }
+
+    @Override
+    public boolean remove(T subscriber) {
+        Object[] current;
+        Object[] next;
+        do {
+            current = snapshot;
+            int index = indexOf(current, subscriber);
+            if (index < 0) {
+                return false;
+            }
+            next = new Object[current.length - 1];
+            System.arraycopy(current, 0, next, 0, index);
+            System.arraycopy(current, index + 1, next, index, current.length - index - 1);
+        } while (!SNAPSHOT.compareAndSet(this, current, next));
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super T> action) {
+        // One volatile read, then a plain array walk over a snapshot nobody else can change
+        for (Object subscriber : snapshot) {
+            action.accept((T) subscriber);
+        }
+    }
+
+    @Override
+    public int size() {
+        return snapshot.length;
+    }
+
+    private static int indexOf(Object[] subscribers, Object subscriber) {
+        for (int i = 0; i < subscribers.length; i++) {
+            if (subscribers[i].equals(subscriber)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,71 @@
+package org.kmt.lld.design.patterns.behavorial.observer;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size latency histogram with power-of-two buckets.
+ *
+ * Bucket i counts durations in [2^(i-1), 2^i) nanoseconds, so recording is a leading-zero count and one atomic
+ * increment, and the histogram never grows. Percentiles are reported as the upper bound of the bucket they fall
+ * in, i.e. accurate to within a factor of two, which is plenty to tell a 1 us subscriber from a 1 ms one.
+ */
+public final class LatencyHistogram {
+
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    public void record(long nanos) {
+        counts.incrementAndGet(bucket(nanos));
+    }
+
+    /**
+     * Adds all counts of the other histogram to this one, e.g. to combine per-thread histograms.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.addAndGet(i, other.counts.get(i));
+        }
+    }
+
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Upper bound, in nanoseconds, of the bucket holding the given percentile (0-100), or 0 if nothing was recorded.
+     */
+    public long percentile(double percentile) {
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= Math.max(rank, 1)) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    private static int bucket(long nanos) {
+        return nanos <= 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos));
+    }
+
+    private static long upperBound(int bucket) {
+        return bucket >= 63 ? Long.MAX_VALUE : 1L << bucket;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count() + " p50=" + percentile(50) + "ns p99=" + percentile(99)
+                + "ns p99.9=" + percentile(99.9) + "ns";
+    }
+}
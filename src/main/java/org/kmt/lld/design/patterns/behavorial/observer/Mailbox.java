@@ -0,0 +1,176 @@
+package org.kmt.lld.design.patterns.behavorial.observer;
+
+import java.util.Objects;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, single-consumer mailbox drained by its own virtual thread.
+ *
+ * Messages are delivered to the consumer one at a time and in the order they were accepted. The drainer takes
+ * everything that is pending in one go and delivers it outside the lock, so producers only ever contend on a short
+ * critical section. When the mailbox is full the configured {@link OverflowPolicy} decides what happens.
+ *
+ * @param <E> the message type
+ */
+public final class Mailbox<E> implements AutoCloseable {
+
+    private final Object[] items;
+    private final Object[] batch;
+    private final OverflowPolicy policy;
+    private final Consumer<? super E> consumer;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Thread drainer;
+
+    private int head;
+    private int count;
+    private long dropped;
+    private boolean closed;
+
+    public Mailbox(String name, int capacity, OverflowPolicy policy, Consumer<? super E> consumer) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.items = new Object[capacity];
+        this.batch = new Object[capacity];
+        this.policy = Objects.requireNonNull(policy, "policy");
+        this.consumer = Objects.requireNonNull(consumer, "consumer");
+        this.drainer = Thread.ofVirtual().name(name).start(this::drain);
+    }
+
+    /**
+     * Hands a message to the mailbox.
+     *
+     * @return false if the mailbox is closed, or if the caller was interrupted while waiting under
+     *         {@link OverflowPolicy#BLOCK}
+     */
+    public boolean offer(E message) {
+        lock.lock();
+        try {
+            if (count == items.length && !makeRoom()) {
+                return false;
+            }
+            if (closed) {
+                return false;
+            }
+            items[(head + count) % items.length] = message;
+            count++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called with the lock held and the mailbox full
+    private boolean makeRoom() {
+        switch (policy) {
+            case BLOCK -> {
+                while (count == items.length && !closed) {
+                    try {
+                        notFull.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }
+            }
+            case DROP_OLDEST -> {
+                items[head] = null;
+                head = (head + 1) % items.length;
+                count--;
+                dropped++;
+            }
+            case CONFLATE -> {
+                for (int i = 0; i < count; i++) {
+                    items[(head + i) % items.length] = null;
+                }
+                dropped += count;
+                count = 0;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void drain() {
+        while (true) {
+            int taken;
+            lock.lock();
+            try {
+                while (count == 0 && !closed) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                if (count == 0) {
+                    return; // closed and fully drained
+                }
+                taken = count;
+                for (int i = 0; i < taken; i++) {
+                    int index = (head + i) % items.length;
+                    batch[i] = items[index];
+                    items[index] = null;
+                }
+                head = (head + taken) % items.length;
+                count = 0;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            // Deliver outside the lock so producers are never held up by the consumer
+            for (int i = 0; i < taken; i++) {
+                E message = (E) batch[i];
+                batch[i] = null;
+                try {
+                    consumer.accept(message);
+                } catch (RuntimeException e) {
+                    Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of messages discarded by {@link OverflowPolicy#DROP_OLDEST} or {@link OverflowPolicy#CONFLATE}.
+     */
+    public long dropped() {
+        lock.lock();
+        try {
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting messages, lets the drainer deliver what is already pending and waits for it to finish.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        // A consumer that closes its own mailbox must not wait for itself
+        if (Thread.currentThread() != drainer) {
+            boolean interrupted = false;
+            while (drainer.isAlive()) {
+                try {
+                    drainer.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
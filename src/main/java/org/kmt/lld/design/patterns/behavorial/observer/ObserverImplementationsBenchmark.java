@@ -0,0 +1,153 @@
+package org.kmt.lld.design.patterns.behavorial.observer;
+
+import org.kmt.lld.design.patterns.behavorial.observer.PrimitivePropertyChangeSupport.IntPropertyChangeListener;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.beans.PropertyChangeListener;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JMH comparison of the observer implementations in this package, publishing one state change to every listener.
+ *
+ * - CONCRETE_PUBLISHER: {@link ConcretePublisher} from {@link ObserverPattern}, String state.
+ * - EVENT_LISTENER: {@link ObserverPatternUsingEventListener.Subject}, inline mode, one event object per change.
+ * - PROPERTY_CHANGE_LISTENER: {@link ObserverPatternUsingPropertyChangeListener.Subject} with
+ *   java.beans.PropertyChangeListeners, which get boxed values in a PropertyChangeEvent.
+ * - INT_PROPERTY_CHANGE_LISTENER: the same Subject with {@link IntPropertyChangeListener}s, unboxed.
+ *
+ * Listeners are either NO_OP (hand the new state to a Blackhole) or REALISTIC (keep the state, count changes and burn
+ * a little CPU, roughly what a listener updating a view model does). "publish" runs on one thread,
+ * "publishConcurrently" on four threads sharing one subject.
+ *
+ * Each benchmark reports throughput and sampled latency (p50/p99/p99.9 per publish); with the GC profiler,
+ * gc.alloc.rate.norm is the bytes allocated per publish. Int states come from a counter shared by all threads, so every
+ * publish is a change on every implementation, and stay outside the Integer cache so boxing shows up as it would for
+ * real data.
+ *
+ * Run the whole suite with: mvn -Pbenchmark verify (see pom.xml), or main(). Narrow it down with e.g.
+ * -Djmh.args="-p listenerCount=100".
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ObserverImplementationsBenchmark {
+
+    public enum Implementation {
+        CONCRETE_PUBLISHER, EVENT_LISTENER, PROPERTY_CHANGE_LISTENER, INT_PROPERTY_CHANGE_LISTENER
+    }
+
+    public enum Listener {
+        NO_OP, REALISTIC
+    }
+
+    private static final String[] STRING_STATES = {"1000", "1001"};
+
+    @Param
+    Implementation implementation;
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    int listenerCount;
+
+    @Param
+    Listener listener;
+
+    ConcretePublisher concretePublisher;
+    ObserverPatternUsingEventListener.Subject eventListenerSubject;
+    ObserverPatternUsingPropertyChangeListener.Subject propertyChangeSubject;
+
+    // Shared by all threads, so that concurrent publishes never set the state a subject already has: the
+    // PropertyChange subjects skip those, and would deliver fewer notifications than the others
+    @State(Scope.Benchmark)
+    public static class Changes {
+        final AtomicInteger next = new AtomicInteger();
+
+        int nextState() {
+            return 1000 + (next.getAndIncrement() & 0x3FFF_FFFF);
+        }
+    }
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        concretePublisher = new ConcretePublisher();
+        eventListenerSubject = new ObserverPatternUsingEventListener.Subject();
+        propertyChangeSubject = new ObserverPatternUsingPropertyChangeListener.Subject();
+        for (int i = 0; i < listenerCount; i++) {
+            RealisticListener realistic = new RealisticListener();
+            switch (implementation) {
+                case CONCRETE_PUBLISHER -> concretePublisher.subscribe(listener == Listener.NO_OP
+                        ? blackhole::consume
+                        : realistic::onState);
+                case EVENT_LISTENER -> eventListenerSubject.addStateChangeListener(listener == Listener.NO_OP
+                        ? blackhole::consume
+                        : event -> realistic.onState(event.getNewState()));
+                case PROPERTY_CHANGE_LISTENER -> propertyChangeSubject.addPropertyChangeListener(
+                        listener == Listener.NO_OP
+                                ? (PropertyChangeListener) event -> blackhole.consume(event.getNewValue())
+                                : event -> realistic.onState(event.getNewValue()));
+                case INT_PROPERTY_CHANGE_LISTENER -> propertyChangeSubject.addStateChangeListener(
+                        listener == Listener.NO_OP
+                                ? (IntPropertyChangeListener) (property, oldValue, newValue) ->
+                                        blackhole.consume(newValue)
+                                : (property, oldValue, newValue) -> realistic.onState(newValue));
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void publish(Changes changes) {
+        publishOne(changes);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void publishConcurrently(Changes changes) {
+        publishOne(changes);
+    }
+
+    private void publishOne(Changes changes) {
+        int state = changes.nextState();
+        switch (implementation) {
+            case CONCRETE_PUBLISHER -> concretePublisher.setState(STRING_STATES[state & 1]);
+            case EVENT_LISTENER -> eventListenerSubject.setState(state);
+            case PROPERTY_CHANGE_LISTENER, INT_PROPERTY_CHANGE_LISTENER -> propertyChangeSubject.setState(state);
+        }
+    }
+
+    // Keeps the last state, counts changes and does a little work per change
+    static final class RealisticListener {
+        int state;
+        Object stateObject;
+        long changes;
+
+        void onState(int newState) {
+            state = newState;
+            changes++;
+            Blackhole.consumeCPU(64);
+        }
+
+        void onState(Object newState) {
+            stateObject = newState;
+            changes++;
+            Blackhole.consumeCPU(64);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ObserverImplementationsBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
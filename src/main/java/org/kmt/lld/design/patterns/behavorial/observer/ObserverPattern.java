@@ -1,7 +1,5 @@
 package org.kmt.lld.design.patterns.behavorial.observer;
 
-import java.util.*;
-
 /**
  * Observer Design Pattern Example
  *
@@ -63,29 +61,38 @@ interface Publisher {
  * ConcretePublisher class
  *
  * Implements the Publisher interface, maintaining its own state and notifying subscribers when the state changes.
+ * Subscribers are kept in a {@link SubscriberRegistry}; the default copy-on-write registry lets other threads
+ * subscribe and unsubscribe while a notification is in progress.
  */
 class ConcretePublisher implements Publisher {
-    private List<Subscriber> subscribers = new ArrayList<>();
-    private String state;
+    private final SubscriberRegistry<Subscriber> subscribers;
+    private volatile String state;
+
+    public ConcretePublisher() {
+        this(new CopyOnWriteSubscriberRegistry<>());
+    }
+
+    public ConcretePublisher(SubscriberRegistry<Subscriber> subscribers) {
+        this.subscribers = subscribers;
+    }
 
     @Override
     public void subscribe(Subscriber subscriber) {
-        // Add a subscriber to the list
+        // Add a subscriber to the registry
         subscribers.add(subscriber);
     }
 
     @Override
     public void unsubscribe(Subscriber subscriber) {
-        // Remove a subscriber from the list
+        // Remove a subscriber from the registry
         subscribers.remove(subscriber);
     }
 
     @Override
     public void notifySubscribers() {
         // Notify all subscribers of the state change
-        for (Subscriber subscriber : subscribers) {
-            subscriber.update(state);
-        }
+        String current = state;
+        subscribers.forEach(subscriber -> subscriber.update(current));
     }
 
     @Override
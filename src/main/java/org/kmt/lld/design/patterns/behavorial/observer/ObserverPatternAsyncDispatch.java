@@ -0,0 +1,134 @@
+package org.kmt.lld.design.patterns.behavorial.observer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Observer Pattern with Asynchronous Dispatch
+ *
+ * Problem:
+ * ConcretePublisher calls every Subscriber.update inline on the publishing thread. One slow subscriber stalls the
+ * publisher and every subscriber registered after it, and publish latency grows with the number of subscribers.
+ *
+ * Solution:
+ * Every subscriber gets its own bounded {@link Mailbox} drained by its own virtual thread. Publishing only drops the
+ * new state into each mailbox, so the publisher never runs subscriber code. Each subscriber still sees its updates in
+ * publish order, and what happens when a subscriber falls too far behind is chosen with an {@link OverflowPolicy}.
+ *
+ * Components:
+ * - AsyncConcretePublisher: A ConcretePublisher that wraps every subscriber in a MailboxSubscriber.
+ * - MailboxSubscriber: A Subscriber decorator whose update only enqueues; the real subscriber is called by the
+ *   mailbox's virtual thread.
+ *
+ * Where to Use:
+ * - Use it when subscribers do I/O or otherwise take much longer than the publisher can afford to wait.
+ * - Don't use it when subscribers must have seen the update by the time setState returns.
+ */
+
+/**
+ * MailboxSubscriber class
+ *
+ * Decorates a subscriber so that updates are queued in a mailbox instead of being processed on the caller's thread.
+ */
+class MailboxSubscriber implements Subscriber, AutoCloseable {
+    private final Mailbox<String> mailbox;
+
+    MailboxSubscriber(Subscriber delegate, int capacity, OverflowPolicy policy) {
+        this.mailbox = new Mailbox<>("mailbox-" + delegate, capacity, policy, delegate::update);
+    }
+
+    @Override
+    public void update(String state) {
+        mailbox.offer(state);
+    }
+
+    long dropped() {
+        return mailbox.dropped();
+    }
+
+    @Override
+    public void close() {
+        mailbox.close();
+    }
+}
+
+/**
+ * AsyncConcretePublisher class
+ *
+ * A ConcretePublisher whose subscribers are notified asynchronously, each through its own mailbox. A subscriber can
+ * only be registered once. Closing the publisher delivers what is still queued and stops the mailbox threads.
+ */
+class AsyncConcretePublisher extends ConcretePublisher implements AutoCloseable {
+    private final int mailboxCapacity;
+    private final OverflowPolicy overflowPolicy;
+    private final Map<Subscriber, MailboxSubscriber> mailboxes = new ConcurrentHashMap<>();
+
+    public AsyncConcretePublisher(int mailboxCapacity, OverflowPolicy overflowPolicy) {
+        this.mailboxCapacity = mailboxCapacity;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    @Override
+    public void subscribe(Subscriber subscriber) {
+        MailboxSubscriber created = new MailboxSubscriber(subscriber, mailboxCapacity, overflowPolicy);
+        if (mailboxes.putIfAbsent(subscriber, created) != null) {
+            created.close(); // already subscribed
+            return;
+        }
+        super.subscribe(created);
+        if (mailboxes.get(subscriber) != created) {
+            // Unsubscribed while this was registering: unsubscribe closed the mailbox, but may have missed it here
+            super.unsubscribe(created);
+        }
+    }
+
+    @Override
+    public void unsubscribe(Subscriber subscriber) {
+        MailboxSubscriber mailbox = mailboxes.remove(subscriber);
+        if (mailbox != null) {
+            super.unsubscribe(mailbox);
+            mailbox.close();
+        }
+    }
+
+    /**
+     * Number of updates the subscriber lost to the overflow policy, or 0 if it is not subscribed.
+     */
+    public long dropped(Subscriber subscriber) {
+        MailboxSubscriber mailbox = mailboxes.get(subscriber);
+        return mailbox == null ? 0 : mailbox.dropped();
+    }
+
+    @Override
+    public void close() {
+        for (Subscriber subscriber : mailboxes.keySet()) {
+            unsubscribe(subscriber);
+        }
+    }
+}
+
+// Client code
+public class ObserverPatternAsyncDispatch {
+    public static void main(String[] args) {
+        try (AsyncConcretePublisher publisher = new AsyncConcretePublisher(16, OverflowPolicy.CONFLATE)) {
+            Subscriber fast = new ConcreteSubscriber();
+            Subscriber slow = state -> {
+                try {
+                    Thread.sleep(100); // e.g. writing to a remote system
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                System.out.println("Slow subscriber state updated to: " + state);
+            };
+            publisher.subscribe(fast);
+            publisher.subscribe(slow);
+
+            long start = System.nanoTime();
+            for (int i = 1; i <= 100; i++) {
+                publisher.setState("State " + i); // returns immediately, even with the slow subscriber
+            }
+            System.out.println("Published 100 states in " + (System.nanoTime() - start) / 1_000 + " us");
+            System.out.println("Slow subscriber skipped " + publisher.dropped(slow) + " intermediate states");
+        } // close() waits for the mailboxes to drain
+    }
+}
@@ -0,0 +1,192 @@
+package org.kmt.lld.design.patterns.behavorial.observer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Observer Pattern with Publisher-Side Filtering
+ *
+ * Problem:
+ * Every subscriber is called on every state change, even when it only cares about a few of them. Most of the fan-out
+ * ends in callbacks that look at the state and return without doing anything.
+ *
+ * Solution:
+ * A subscription carries a {@link StateFilter} that the publisher evaluates before dispatching. Subscribers with equal
+ * filters are grouped, so a filter shared by a thousand subscribers is evaluated once per change, not a thousand
+ * times, and a change nobody is interested in costs one evaluation per group and no callbacks at all.
+ *
+ * A filter compares the new state with the state its group was last notified with, which is what makes "only when it
+ * changed" style filters possible.
+ *
+ * Components:
+ * - StateFilter: The predicate a subscription carries. Built-in filters are records, so equal filters group together.
+ * - FilteredConcretePublisher: A ConcretePublisher that keeps one subscriber group per distinct filter.
+ *
+ * Where to Use:
+ * - Use it when subscribers are interested in a small fraction of the changes and many of them share the same
+ *   interest.
+ */
+
+/**
+ * StateFilter interface
+ *
+ * Decides whether a state change is delivered. {@code delivered} is the state the group was last notified with,
+ * null before the first notification.
+ */
+interface StateFilter {
+    boolean accept(String delivered, String state);
+
+    /**
+     * Only states that differ from the last one delivered.
+     */
+    static StateFilter changed() {
+        return new Changed();
+    }
+
+    static StateFilter startsWith(String prefix) {
+        return new StartsWith(prefix);
+    }
+
+    record Changed() implements StateFilter {
+        @Override
+        public boolean accept(String delivered, String state) {
+            return !Objects.equals(delivered, state);
+        }
+    }
+
+    record StartsWith(String prefix) implements StateFilter {
+        @Override
+        public boolean accept(String delivered, String state) {
+            return state != null && state.startsWith(prefix);
+        }
+    }
+}
+
+/**
+ * FilteredConcretePublisher class
+ *
+ * A ConcretePublisher that can also notify subscribers selectively. Subscribers registered with
+ * {@link #subscribe(Subscriber)} still get every change.
+ */
+class FilteredConcretePublisher extends ConcretePublisher {
+    private static final FilterGroup[] NO_GROUPS = new FilterGroup[0];
+
+    private final Map<StateFilter, FilterGroup> groupsByFilter = new HashMap<>();
+    // Never mutated once published; replaced under the lock on groupsByFilter
+    private volatile FilterGroup[] groups = NO_GROUPS;
+
+    public void subscribe(Subscriber subscriber, StateFilter filter) {
+        synchronized (groupsByFilter) {
+            FilterGroup group = groupsByFilter.get(filter);
+            if (group == null) {
+                group = new FilterGroup(filter);
+                groupsByFilter.put(filter, group);
+                FilterGroup[] current = groups;
+                FilterGroup[] next = Arrays.copyOf(current, current.length + 1);
+                next[current.length] = group;
+                groups = next;
+            }
+            group.members.add(subscriber);
+        }
+    }
+
+    @Override
+    public void unsubscribe(Subscriber subscriber) {
+        super.unsubscribe(subscriber);
+        synchronized (groupsByFilter) {
+            for (FilterGroup group : groups) {
+                if (group.members.remove(subscriber) && group.members.size() == 0) {
+                    groupsByFilter.remove(group.filter);
+                    groups = Arrays.stream(groups).filter(g -> g != group).toArray(FilterGroup[]::new);
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of filter evaluations a state change costs.
+     */
+    public int filterGroupCount() {
+        return groups.length;
+    }
+
+    @Override
+    public void notifySubscribers() {
+        super.notifySubscribers();
+        String current = getState();
+        for (FilterGroup group : groups) {
+            if (group.accept(current)) {
+                group.members.forEach(subscriber -> subscriber.update(current));
+            }
+        }
+    }
+
+    private static final class FilterGroup {
+        final StateFilter filter;
+        final SubscriberRegistry<Subscriber> members = new CopyOnWriteSubscriberRegistry<>();
+        // Guarded by this
+        private String delivered;
+
+        FilterGroup(StateFilter filter) {
+            this.filter = filter;
+        }
+
+        synchronized boolean accept(String state) {
+            if (!filter.accept(delivered, state)) {
+                return false;
+            }
+            delivered = state;
+            return true;
+        }
+    }
+}
+
+// Client code
+public class ObserverPatternFilteredSubscriptions {
+
+    static class CountingSubscriber implements Subscriber {
+        private final String name;
+        private int updates;
+
+        CountingSubscriber(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void update(String state) {
+            updates++;
+        }
+
+        @Override
+        public String toString() {
+            return name + ": " + updates + " updates";
+        }
+    }
+
+    public static void main(String[] args) {
+        FilteredConcretePublisher publisher = new FilteredConcretePublisher();
+
+        CountingSubscriber everything = new CountingSubscriber("everything");
+        publisher.subscribe(everything);
+
+        // 1000 subscribers only interested in alerts; two different filter instances, but equal, so one group
+        CountingSubscriber[] alertSubscribers = new CountingSubscriber[1000];
+        for (int i = 0; i < alertSubscribers.length; i++) {
+            alertSubscribers[i] = new CountingSubscriber("alerts-" + i);
+            publisher.subscribe(alertSubscribers[i], StateFilter.startsWith("ALERT"));
+        }
+        CountingSubscriber changes = new CountingSubscriber("changes");
+        publisher.subscribe(changes, StateFilter.changed());
+
+        for (int i = 0; i < 100; i++) {
+            publisher.setState(i % 10 == 0 ? "ALERT " + i : "OK");
+        }
+
+        System.out.println("Filter groups evaluated per change: " + publisher.filterGroupCount());
+        System.out.println(everything);
+        System.out.println(alertSubscribers[0]);
+        System.out.println(changes);
+    }
+}
@@ -0,0 +1,198 @@
+package org.kmt.lld.design.patterns.behavorial.observer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Observer Pattern with Slow-Consumer Detection
+ *
+ * Problem:
+ * With synchronous notification one misbehaving subscriber can dominate publish latency, and nothing tells which
+ * subscriber it is.
+ *
+ * Solution:
+ * Every subscriber is decorated with a MonitoredSubscriber that times each update call and records it in the
+ * subscriber's {@link SubscriberMonitor} (call count and latency histogram). A subscriber that keeps going over the
+ * time budget is dealt with according to a {@link SlowConsumerPolicy}: its updates are moved to a mailbox on its own
+ * thread, skipped, or it is evicted altogether.
+ *
+ * Components:
+ * - MonitoredConcretePublisher: A ConcretePublisher that wraps every subscriber and exposes the monitors.
+ * - MonitoredSubscriber: A Subscriber decorator that times the real subscriber and applies the policy.
+ */
+
+/**
+ * MonitoredSubscriber class
+ *
+ * Times every update of the wrapped subscriber through its monitor's {@link SubscriberMonitor.Delivery}. Only the
+ * publisher's thread pays for the timing while the subscriber is ACTIVE; once moved to ASYNC the mailbox thread calls
+ * (and times) the subscriber instead. States are a sequence of changes, so the mailbox queues up to mailboxCapacity
+ * of them and drops the oldest when the subscriber falls further behind.
+ */
+class MonitoredSubscriber implements Subscriber, AutoCloseable {
+    final SubscriberMonitor monitor;
+    private final SubscriberMonitor.Delivery<String> delivery;
+
+    MonitoredSubscriber(Subscriber delegate, SubscriberMonitor monitor, MonitoredConcretePublisher publisher,
+                        int mailboxCapacity) {
+        this.monitor = monitor;
+        this.delivery = monitor.delivery(delegate::update, mailboxCapacity, OverflowPolicy.DROP_OLDEST,
+                () -> publisher.unsubscribe(delegate));
+    }
+
+    @Override
+    public void update(String state) {
+        delivery.deliver(state);
+    }
+
+    @Override
+    public void close() {
+        delivery.close();
+    }
+}
+
+/**
+ * MonitoredConcretePublisher class
+ *
+ * A ConcretePublisher that monitors every subscriber against a per-call time budget. A subscriber can only be
+ * registered once.
+ */
+class MonitoredConcretePublisher extends ConcretePublisher implements AutoCloseable {
+    private final long budgetNanos;
+    private final int maxStrikes;
+    private final SlowConsumerPolicy policy;
+    private final int mailboxCapacity;
+    private final Map<Subscriber, MonitoredSubscriber> wrappers = new ConcurrentHashMap<>();
+    // Evicted subscribers' monitors, for as long as someone still holds the subscriber to ask about it
+    private final Map<Subscriber, SubscriberMonitor> evicted = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public MonitoredConcretePublisher(long budgetNanos, int maxStrikes, SlowConsumerPolicy policy) {
+        this(budgetNanos, maxStrikes, policy, 1024);
+    }
+
+    public MonitoredConcretePublisher(long budgetNanos, int maxStrikes, SlowConsumerPolicy policy,
+                                      int mailboxCapacity) {
+        this.budgetNanos = budgetNanos;
+        this.maxStrikes = maxStrikes;
+        this.policy = policy;
+        this.mailboxCapacity = mailboxCapacity;
+    }
+
+    @Override
+    public void subscribe(Subscriber subscriber) {
+        SubscriberMonitor monitor = new SubscriberMonitor(subscriber.toString(), budgetNanos, maxStrikes, policy);
+        MonitoredSubscriber wrapper = new MonitoredSubscriber(subscriber, monitor, this, mailboxCapacity);
+        if (wrappers.putIfAbsent(subscriber, wrapper) == null) {
+            evicted.remove(subscriber);
+            super.subscribe(wrapper);
+            if (wrappers.get(subscriber) != wrapper) {
+                // Unsubscribed while this was registering: unsubscribe closed the wrapper, but may have missed it here
+                super.unsubscribe(wrapper);
+            }
+        }
+    }
+
+    @Override
+    public void unsubscribe(Subscriber subscriber) {
+        MonitoredSubscriber wrapper = wrappers.remove(subscriber);
+        if (wrapper != null) {
+            super.unsubscribe(wrapper);
+            wrapper.close();
+            if (wrapper.monitor.status() == SubscriberMonitor.Status.EVICTED) {
+                evicted.put(subscriber, wrapper.monitor);
+            }
+        }
+    }
+
+    /**
+     * Timing and status of a subscriber, or of an evicted subscriber that is still referenced elsewhere; null for a
+     * subscriber that was unsubscribed.
+     */
+    public SubscriberMonitor monitor(Subscriber subscriber) {
+        MonitoredSubscriber wrapper = wrappers.get(subscriber);
+        return wrapper != null ? wrapper.monitor : evicted.get(subscriber);
+    }
+
+    /**
+     * Monitors of the current subscribers, then of the evicted ones that are still referenced elsewhere.
+     */
+    public Collection<SubscriberMonitor> monitors() {
+        List<SubscriberMonitor> monitors = new ArrayList<>();
+        for (MonitoredSubscriber wrapper : wrappers.values()) {
+            monitors.add(wrapper.monitor);
+        }
+        synchronized (evicted) {
+            monitors.addAll(evicted.values());
+        }
+        return monitors;
+    }
+
+    @Override
+    public void close() {
+        for (Subscriber subscriber : wrappers.keySet()) {
+            unsubscribe(subscriber);
+        }
+    }
+}
+
+// Client code
+public class ObserverPatternSlowConsumers {
+
+    // Takes 5 ms per update, e.g. because it writes to a remote system
+    static class SlowSubscriber implements Subscriber {
+        @Override
+        public void update(String state) {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "SlowSubscriber";
+        }
+    }
+
+    static class FastSubscriber implements Subscriber {
+        private String state;
+
+        @Override
+        public void update(String state) {
+            this.state = state;
+        }
+
+        @Override
+        public String toString() {
+            return "FastSubscriber";
+        }
+    }
+
+    public static void main(String[] args) {
+        for (SlowConsumerPolicy policy : SlowConsumerPolicy.values()) {
+            // Budget of 1 ms per update call, policy applied after 3 consecutive calls over budget
+            try (MonitoredConcretePublisher publisher = new MonitoredConcretePublisher(1_000_000, 3, policy)) {
+                FastSubscriber fast = new FastSubscriber();
+                SlowSubscriber slow = new SlowSubscriber();
+                publisher.subscribe(fast);
+                publisher.subscribe(slow);
+
+                long start = System.nanoTime();
+                for (int i = 1; i <= 200; i++) {
+                    publisher.setState("State " + i);
+                }
+                long elapsedMicros = (System.nanoTime() - start) / 1_000;
+
+                System.out.println(policy + ": published 200 states in " + elapsedMicros + " us");
+                System.out.println("  " + publisher.monitor(fast));
+                System.out.println("  " + publisher.monitor(slow));
+            }
+        }
+    }
+}
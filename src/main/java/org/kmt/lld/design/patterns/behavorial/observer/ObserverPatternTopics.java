@@ -0,0 +1,108 @@
+package org.kmt.lld.design.patterns.behavorial.observer;
+
+/**
+ * Observer Pattern with Hierarchical Topics
+ *
+ * Problem:
+ * A publisher with one stream of state changes makes every subscriber see everything. Market data is naturally a
+ * hierarchy (exchange, symbol, field) and subscribers want slices of it: one symbol's price, every field of one
+ * symbol, everything on one exchange.
+ *
+ * Solution:
+ * Changes are published on a dotted topic such as {@code stocks.NASDAQ.AAPL.price}, and subscriptions are patterns
+ * over topics: {@code *} stands for exactly one level, {@code #} for any number of trailing levels. Patterns are kept
+ * in a {@link TopicTrie}, so finding the subscribers of a topic only walks the trie paths the topic can match instead
+ * of testing every pattern.
+ *
+ * Components:
+ * - TopicTrie: Stores the patterns and finds the subscriptions matching a topic.
+ * - TopicConcretePublisher: A ConcretePublisher that also publishes on topics.
+ *
+ * Where to Use:
+ * - Use it when there are many subscriptions, each interested in a small, structured part of the changes.
+ */
+
+/**
+ * TopicConcretePublisher class
+ *
+ * Subscribers registered with {@link #subscribe(Subscriber)} still get every change, whatever its topic; changes made
+ * with {@link #setState(String)} have no topic and only reach them.
+ */
+class TopicConcretePublisher extends ConcretePublisher {
+    private final TopicTrie<Subscriber> topics = new TopicTrie<>();
+
+    public void subscribe(String pattern, Subscriber subscriber) {
+        topics.subscribe(pattern, subscriber);
+    }
+
+    public void unsubscribe(String pattern, Subscriber subscriber) {
+        topics.unsubscribe(pattern, subscriber);
+    }
+
+    public void publish(String topic, String state) {
+        setState(state);
+        topics.forEachMatch(topic, subscriber -> subscriber.update(state));
+    }
+
+    public int topicSubscriptionCount() {
+        return topics.size();
+    }
+}
+
+// Client code
+public class ObserverPatternTopics {
+
+    static class CountingSubscriber implements Subscriber {
+        private final String name;
+        private int updates;
+
+        CountingSubscriber(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void update(String state) {
+            updates++;
+        }
+
+        @Override
+        public String toString() {
+            return name + ": " + updates + " updates";
+        }
+    }
+
+    public static void main(String[] args) {
+        TopicConcretePublisher publisher = new TopicConcretePublisher();
+
+        CountingSubscriber everything = new CountingSubscriber("everything");
+        publisher.subscribe(everything);
+        CountingSubscriber applePrice = new CountingSubscriber("stocks.NASDAQ.AAPL.price");
+        publisher.subscribe("stocks.NASDAQ.AAPL.price", applePrice);
+        CountingSubscriber prices = new CountingSubscriber("stocks.*.*.price");
+        publisher.subscribe("stocks.*.*.price", prices);
+        CountingSubscriber nyse = new CountingSubscriber("stocks.NYSE.#");
+        publisher.subscribe("stocks.NYSE.#", nyse);
+        CountingSubscriber ibm = new CountingSubscriber("stocks.*.IBM.#");
+        publisher.subscribe("stocks.*.IBM.#", ibm);
+
+        String[] topics = {
+                "stocks.NASDAQ.AAPL.price", "stocks.NASDAQ.AAPL.volume", "stocks.NASDAQ.GOOG.price",
+                "stocks.NYSE.IBM.price", "stocks.NYSE.IBM.volume", "stocks.NYSE.IBM"
+        };
+        for (int i = 0; i < 60; i++) {
+            String topic = topics[i % topics.length];
+            publisher.publish(topic, topic + " " + i);
+        }
+
+        System.out.println("Topic subscriptions: " + publisher.topicSubscriptionCount());
+        System.out.println(everything);
+        System.out.println(applePrice);
+        System.out.println(prices);
+        System.out.println(nyse);
+        System.out.println(ibm);
+
+        publisher.unsubscribe("stocks.NYSE.#", nyse);
+        publisher.publish("stocks.NYSE.IBM.price", "after unsubscribe");
+        System.out.println(nyse);
+    }
+}
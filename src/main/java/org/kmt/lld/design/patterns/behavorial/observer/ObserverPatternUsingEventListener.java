@@ -21,6 +21,11 @@ public class ObserverPatternUsingEventListener {
         public int getNewState() {
             return newState;
         }
+
+        // Lets the ring buffer reuse its preallocated events instead of creating one per change
+        void setNewState(int newState) {
+            this.newState = newState;
+        }
     }
 
     // StateChangeListener interface
@@ -28,11 +33,26 @@ public class ObserverPatternUsingEventListener {
         void stateChanged(StateChangeEvent event);
     }
 
-    // Subject class
-    public static class Subject {
+    /**
+     * Subject class
+     *
+     * By default listeners are notified inline with a new event per change. Created with a ring buffer size,
+     * the subject publishes into a {@link StateChangeRingBuffer} instead: listeners run on their own threads and
+     * no event is allocated per change. In that mode setState must only be called from one thread.
+     */
+    public static class Subject implements AutoCloseable {
         private List<StateChangeListener> listeners = new ArrayList<>();
+        private final StateChangeRingBuffer ringBuffer;
         private int state;
 
+        public Subject() {
+            this.ringBuffer = null;
+        }
+
+        public Subject(int ringBufferSize) {
+            this.ringBuffer = new StateChangeRingBuffer(this, ringBufferSize);
+        }
+
         public int getState() {
             return state;
         }
@@ -43,14 +63,33 @@ public class ObserverPatternUsingEventListener {
         }
 
         public void addStateChangeListener(StateChangeListener listener) {
-            listeners.add(listener);
+            if (ringBuffer != null) {
+                ringBuffer.addListener(listener);
+            } else {
+                listeners.add(listener);
+            }
         }
 
         public void removeStateChangeListener(StateChangeListener listener) {
-            listeners.remove(listener);
+            if (ringBuffer != null) {
+                ringBuffer.removeListener(listener);
+            } else {
+                listeners.remove(listener);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (ringBuffer != null) {
+                ringBuffer.close();
+            }
         }
 
         private void notifyListeners() {
+            if (ringBuffer != null) {
+                ringBuffer.publish(state);
+                return;
+            }
             StateChangeEvent event = new StateChangeEvent(this, state);
             for (StateChangeListener listener : listeners) {
                 listener.stateChanged(event);
@@ -83,6 +122,15 @@ public class ObserverPatternUsingEventListener {
 
         subject.setState(10);
         subject.setState(20);
+
+        // Same listeners, notified through a preallocated ring buffer on their own threads
+        try (Subject ringBufferSubject = new Subject(1024)) {
+            ringBufferSubject.addStateChangeListener(observer1);
+            ringBufferSubject.addStateChangeListener(observer2);
+
+            ringBufferSubject.setState(30);
+            ringBufferSubject.setState(40);
+        } // close() waits until both listeners have seen every state
     }
 }
 
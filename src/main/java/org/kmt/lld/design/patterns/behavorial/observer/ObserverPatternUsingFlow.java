@@ -0,0 +1,299 @@
+package org.kmt.lld.design.patterns.behavorial.observer;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Observer Pattern with Backpressure (java.util.concurrent.Flow)
+ *
+ * Problem:
+ * The Publisher interface has no notion of demand. A publisher that changes state faster than a subscriber can
+ * process it either stalls (synchronous dispatch) or piles up an ever growing queue (naive asynchronous dispatch).
+ *
+ * Solution:
+ * Expose the ConcretePublisher as a Flow.Publisher. Every Flow.Subscriber gets a Flow.Subscription with a bounded
+ * buffer: state changes go into the buffer, and the subscriber only receives as many onNext calls as it asked for
+ * with request(n). Buffered items are delivered in batches on an Executor. When a subscriber does not keep up and
+ * its buffer is full, the {@link OverflowPolicy} decides whether the publisher waits or old states are dropped,
+ * so memory stays bounded no matter how far behind a subscriber is.
+ */
+public class ObserverPatternUsingFlow {
+
+    /**
+     * FlowPublisher class
+     *
+     * Adapts a ConcretePublisher to Flow.Publisher. Each Flow.Subscriber is registered with the ConcretePublisher
+     * through its own BufferedSubscription. Closing the publisher completes all subscribers once their buffers are
+     * drained.
+     */
+    public static class FlowPublisher implements Flow.Publisher<String>, AutoCloseable {
+        // Upper bound of onNext calls per drain task, so one subscriber cannot monopolize an executor thread
+        static final int MAX_BATCH = 256;
+
+        private final ConcretePublisher source;
+        private final Executor executor;
+        private final int bufferSize;
+        private final OverflowPolicy overflowPolicy;
+        private final Set<BufferedSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+        FlowPublisher(ConcretePublisher source, Executor executor, int bufferSize, OverflowPolicy overflowPolicy) {
+            if (bufferSize < 1) {
+                throw new IllegalArgumentException("bufferSize must be positive: " + bufferSize);
+            }
+            this.source = source;
+            this.executor = executor;
+            this.bufferSize = bufferSize;
+            this.overflowPolicy = overflowPolicy;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super String> subscriber) {
+            Objects.requireNonNull(subscriber, "subscriber");
+            BufferedSubscription subscription = new BufferedSubscription(this, subscriber);
+            subscriptions.add(subscription);
+            subscriber.onSubscribe(subscription);
+            source.subscribe(subscription);
+            if (!subscriptions.contains(subscription)) {
+                // Cancelled or completed, e.g. from onSubscribe, before it was subscribed to the source
+                source.unsubscribe(subscription);
+            }
+        }
+
+        @Override
+        public void close() {
+            for (BufferedSubscription subscription : subscriptions) {
+                subscription.complete();
+            }
+        }
+
+        void remove(BufferedSubscription subscription) {
+            if (subscriptions.remove(subscription)) {
+                source.unsubscribe(subscription);
+            }
+        }
+    }
+
+    /**
+     * BufferedSubscription class
+     *
+     * The ConcretePublisher sees a plain Subscriber whose update only buffers. The Flow.Subscriber sees a
+     * Flow.Subscription and receives buffered states on the executor, never more than it requested and never
+     * concurrently.
+     */
+    static final class BufferedSubscription implements Flow.Subscription, Subscriber {
+        private final FlowPublisher owner;
+        private final Flow.Subscriber<? super String> downstream;
+
+        // Ring buffer, guarded by this
+        private final String[] buffer;
+        private int head;
+        private int count;
+
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile boolean done;
+        private volatile Throwable error;
+
+        BufferedSubscription(FlowPublisher owner, Flow.Subscriber<? super String> downstream) {
+            this.owner = owner;
+            this.downstream = downstream;
+            this.buffer = new String[owner.bufferSize];
+        }
+
+        @Override
+        public void update(String state) {
+            if (cancelled || done) {
+                return;
+            }
+            synchronized (this) {
+                if (count == buffer.length) {
+                    switch (owner.overflowPolicy) {
+                        case BLOCK -> {
+                            while (count == buffer.length && !cancelled) {
+                                try {
+                                    wait();
+                                } catch (InterruptedException e) {
+                                    Thread.currentThread().interrupt();
+                                    return;
+                                }
+                            }
+                            if (cancelled) {
+                                return;
+                            }
+                        }
+                        case DROP_OLDEST -> {
+                            buffer[head] = null;
+                            head = (head + 1) % buffer.length;
+                            count--;
+                        }
+                        case CONFLATE -> clear();
+                    }
+                }
+                buffer[(head + count) % buffer.length] = state;
+                count++;
+            }
+            schedule();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                // Reactive Streams rule 3.9
+                error = new IllegalArgumentException("non-positive request: " + n);
+            } else {
+                requested.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            owner.remove(this);
+            synchronized (this) {
+                clear();
+                notifyAll();
+            }
+        }
+
+        void complete() {
+            done = true;
+            owner.remove(this);
+            schedule();
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                owner.executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                if (cancelled) {
+                    return;
+                }
+                if (error != null) {
+                    cancel();
+                    downstream.onError(error);
+                    return;
+                }
+                long demand = requested.get();
+                long emitted = 0;
+                while (emitted != demand && emitted < FlowPublisher.MAX_BATCH) {
+                    String state = poll();
+                    if (state == null) {
+                        break;
+                    }
+                    downstream.onNext(state);
+                    emitted++;
+                    if (cancelled) {
+                        return;
+                    }
+                }
+                if (emitted > 0 && demand != Long.MAX_VALUE) {
+                    requested.addAndGet(-emitted);
+                }
+                if (done && isEmpty()) {
+                    cancelled = true;
+                    downstream.onComplete();
+                    return;
+                }
+                if (emitted == FlowPublisher.MAX_BATCH) {
+                    // Batch limit reached: give the executor thread back and continue in a fresh task
+                    owner.executor.execute(this::drain);
+                    return;
+                }
+            } while ((missed = wip.addAndGet(-missed)) != 0);
+        }
+
+        private synchronized String poll() {
+            if (count == 0) {
+                return null;
+            }
+            String state = buffer[head];
+            buffer[head] = null;
+            head = (head + 1) % buffer.length;
+            count--;
+            notifyAll(); // a publisher may be waiting for room under BLOCK
+            return state;
+        }
+
+        private synchronized boolean isEmpty() {
+            return count == 0;
+        }
+
+        // Called with the lock held
+        private void clear() {
+            for (int i = 0; i < count; i++) {
+                buffer[(head + i) % buffer.length] = null;
+            }
+            head = 0;
+            count = 0;
+        }
+    }
+
+    // Slow subscriber that only ever asks for one state at a time
+    static class OneByOneSubscriber implements Flow.Subscriber<String> {
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private Flow.Subscription subscription;
+        private int received;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(String state) {
+            received++;
+            System.out.println("Received: " + state);
+            try {
+                Thread.sleep(20); // simulate slow processing
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            throwable.printStackTrace();
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            System.out.println("Completed after " + received + " states");
+            completed.countDown();
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        ConcretePublisher publisher = new ConcretePublisher();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            FlowPublisher flowPublisher = new FlowPublisher(publisher, executor, 4, OverflowPolicy.DROP_OLDEST);
+            OneByOneSubscriber subscriber = new OneByOneSubscriber();
+            flowPublisher.subscribe(subscriber);
+
+            // The publisher is much faster than the subscriber; at most 4 states are ever buffered
+            for (int i = 1; i <= 1_000; i++) {
+                publisher.setState("State " + i);
+            }
+
+            flowPublisher.close();
+            subscriber.completed.await();
+        }
+    }
+}
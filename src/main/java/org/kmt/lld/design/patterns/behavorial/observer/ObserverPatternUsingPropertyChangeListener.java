@@ -1,7 +1,8 @@
 package org.kmt.lld.design.patterns.behavorial.observer;
 
+import org.kmt.lld.design.patterns.behavorial.observer.PrimitivePropertyChangeSupport.IntPropertyChangeListener;
+
 import java.beans.PropertyChangeListener;
-import java.beans.PropertyChangeSupport;
 
 // Client code
 public class ObserverPatternUsingPropertyChangeListener {
@@ -9,10 +10,13 @@ public class ObserverPatternUsingPropertyChangeListener {
     // Subject class
     public static class Subject {
         private int state;
-        private PropertyChangeSupport support;
+        private PrimitivePropertyChangeSupport support;
+        // Resolved once, so firing never looks the property up by name
+        private final int stateProperty;
 
         public Subject() {
-            support = new PropertyChangeSupport(this);
+            support = new PrimitivePropertyChangeSupport(this);
+            stateProperty = support.property("state");
         }
 
         public int getState() {
@@ -22,7 +26,7 @@ public class ObserverPatternUsingPropertyChangeListener {
         public void setState(int state) {
             int oldState = this.state;
             this.state = state;
-            support.firePropertyChange("state", oldState, state);
+            support.fireIntPropertyChange(stateProperty, oldState, state);
         }
 
         public void addPropertyChangeListener(PropertyChangeListener pcl) {
@@ -32,6 +36,14 @@ public class ObserverPatternUsingPropertyChangeListener {
         public void removePropertyChangeListener(PropertyChangeListener pcl) {
             support.removePropertyChangeListener(pcl);
         }
+
+        public void addStateChangeListener(IntPropertyChangeListener listener) {
+            support.addIntPropertyChangeListener(stateProperty, listener);
+        }
+
+        public void removeStateChangeListener(IntPropertyChangeListener listener) {
+            support.removeIntPropertyChangeListener(stateProperty, listener);
+        }
     }
 
     // ConcreteObserver class
@@ -48,14 +60,30 @@ public class ObserverPatternUsingPropertyChangeListener {
         }
     }
 
+    // PrimitiveObserver class, receives the values unboxed and without an event object
+    public static class PrimitiveObserver implements IntPropertyChangeListener {
+        private String name;
+
+        public PrimitiveObserver(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void propertyChange(int property, int oldValue, int newValue) {
+            System.out.println(name + ": State changed from " + oldValue + " to " + newValue);
+        }
+    }
+
 
     public static void main(String[] args) {
         Subject subject = new Subject();
         ConcreteObserver observer1 = new ConcreteObserver("Observer 1");
         ConcreteObserver observer2 = new ConcreteObserver("Observer 2");
+        PrimitiveObserver observer3 = new PrimitiveObserver("Observer 3");
 
         subject.addPropertyChangeListener(observer1);
         subject.addPropertyChangeListener(observer2);
+        subject.addStateChangeListener(observer3);
 
         subject.setState(10);
         subject.setState(20);
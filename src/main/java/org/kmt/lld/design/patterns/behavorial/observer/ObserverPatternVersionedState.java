@@ -0,0 +1,203 @@
+package org.kmt.lld.design.patterns.behavorial.observer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Observer Pattern with Pull-Based Versioned State
+ *
+ * Problem:
+ * Pushing every change to every subscriber makes publishing O(n). With a million subscribers a single setState
+ * spends its time in the fan-out loop, and most subscribers only need to know the latest state at their own pace.
+ *
+ * Solution:
+ * Turn the notification around. The publisher keeps the current state together with a version number that goes up
+ * with every change; publishing replaces that pair with one compare-and-set, no matter how many subscribers there
+ * are. Subscribers hold a StateCursor remembering the last version they saw, and either poll it (one volatile read
+ * when nothing changed) or park until the version moves. Intermediate states a subscriber was too slow to see are
+ * conflated away, and the cursor counts how many it missed.
+ *
+ * Parked subscribers are woken with a single notifyAll, and only when somebody is actually parked; polling
+ * subscribers cost the publisher nothing at all.
+ *
+ * Components:
+ * - VersionedState: An immutable (version, state) pair, so a reader can never see a version with the wrong state.
+ * - VersionedConcretePublisher: A ConcretePublisher that also exposes its versioned state.
+ * - StateCursor: A subscriber's position in the version sequence.
+ *
+ * Where to Use:
+ * - Use it for very large numbers of subscribers that only care about the latest state.
+ * - Don't use it when every subscriber must see every change; use push notification (or a ring buffer) for that.
+ */
+
+record VersionedState(long version, String state) {
+}
+
+/**
+ * VersionedConcretePublisher class
+ *
+ * Every setState publishes a new VersionedState. Subscribers registered with subscribe() are still pushed to as
+ * before; the point of this publisher is not to have any.
+ */
+class VersionedConcretePublisher extends ConcretePublisher {
+    private final AtomicReference<VersionedState> current = new AtomicReference<>(new VersionedState(0, null));
+    private final Object parkingLot = new Object();
+    // Guarded by parkingLot; read without the lock on the publish path
+    private volatile int parked;
+
+    @Override
+    public void setState(String state) {
+        VersionedState previous;
+        do {
+            previous = current.get();
+        } while (!current.compareAndSet(previous, new VersionedState(previous.version() + 1, state)));
+        if (parked > 0) {
+            synchronized (parkingLot) {
+                parkingLot.notifyAll();
+            }
+        }
+        super.setState(state);
+    }
+
+    @Override
+    public String getState() {
+        return current.get().state();
+    }
+
+    public VersionedState versionedState() {
+        return current.get();
+    }
+
+    public long version() {
+        return current.get().version();
+    }
+
+    /**
+     * Waits until the version is newer than the given one, or the timeout passes.
+     *
+     * @return the current versioned state, which is not newer if the wait timed out
+     */
+    public VersionedState awaitNewer(long version, long timeout, TimeUnit unit) throws InterruptedException {
+        VersionedState state = current.get();
+        if (state.version() > version) {
+            return state;
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (parkingLot) {
+            parked++;
+            try {
+                // Re-read after announcing ourselves: a publish in between has either seen us or is visible here
+                while ((state = current.get()).version() <= version) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(parkingLot, remaining);
+                }
+            } finally {
+                parked--;
+            }
+        }
+        return state;
+    }
+}
+
+/**
+ * StateCursor class
+ *
+ * A subscriber's view of a VersionedConcretePublisher. The publisher does not know its cursors, so creating and
+ * dropping them costs nothing on the publishing side. A cursor is meant to be used by one thread.
+ */
+class StateCursor {
+    private final VersionedConcretePublisher publisher;
+    private long seenVersion;
+    private long missed;
+
+    StateCursor(VersionedConcretePublisher publisher) {
+        this.publisher = publisher;
+        this.seenVersion = publisher.version();
+    }
+
+    /**
+     * Returns the latest state if it changed since the last call, otherwise null.
+     */
+    public String poll() {
+        VersionedState state = publisher.versionedState();
+        return state.version() > seenVersion ? advance(state) : null;
+    }
+
+    /**
+     * Parks until the state changes, then returns it; returns null if the timeout passes first.
+     */
+    public String await(long timeout, TimeUnit unit) throws InterruptedException {
+        VersionedState state = publisher.awaitNewer(seenVersion, timeout, unit);
+        return state.version() > seenVersion ? advance(state) : null;
+    }
+
+    /**
+     * Number of states that were replaced before this cursor got to see them.
+     */
+    public long missed() {
+        return missed;
+    }
+
+    private String advance(VersionedState state) {
+        missed += state.version() - seenVersion - 1;
+        seenVersion = state.version();
+        return state.state();
+    }
+}
+
+// Client code
+public class ObserverPatternVersionedState {
+    public static void main(String[] args) throws InterruptedException {
+        VersionedConcretePublisher publisher = new VersionedConcretePublisher();
+
+        // A million subscribers: each is just a cursor, nothing is registered with the publisher
+        StateCursor[] cursors = new StateCursor[1_000_000];
+        for (int i = 0; i < cursors.length; i++) {
+            cursors[i] = new StateCursor(publisher);
+        }
+
+        // A few subscribers that park until something happens
+        List<Thread> waiters = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            int id = i;
+            waiters.add(Thread.ofVirtual().start(() -> {
+                StateCursor cursor = new StateCursor(publisher);
+                try {
+                    String state = cursor.await(10, TimeUnit.SECONDS);
+                    System.out.println("Waiter " + id + " woke up with: " + state);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        Thread.sleep(100);
+
+        int publishes = 1_000_000;
+        long start = System.nanoTime();
+        for (int i = 1; i <= publishes; i++) {
+            publisher.setState("State " + i);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.println("Published " + publishes + " states with " + cursors.length + " subscribers: "
+                + elapsed / publishes + " ns per publish");
+        for (Thread waiter : waiters) {
+            waiter.join();
+        }
+
+        // Subscribers catch up whenever they get around to it
+        int changed = 0;
+        for (StateCursor cursor : cursors) {
+            if (cursor.poll() != null) {
+                changed++;
+            }
+        }
+        System.out.println(changed + " subscribers saw " + publisher.getState() + ", each missed "
+                + cursors[0].missed() + " intermediate states");
+        System.out.println("Polling again: " + (cursors[0].poll() == null ? "no change" : "changed"));
+    }
+}
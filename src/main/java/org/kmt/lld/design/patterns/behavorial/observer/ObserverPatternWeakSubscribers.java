@@ -0,0 +1,38 @@
+package org.kmt.lld.design.patterns.behavorial.observer;
+
+/**
+ * Observer Pattern with Weakly Held Subscribers
+ *
+ * A ConcretePublisher backed by a {@link WeakSubscriberRegistry} does not keep its subscribers alive. Subscribers
+ * that the application forgot to unsubscribe stop being notified once they are garbage collected, and their
+ * registrations are purged in bulk on the next subscribe/unsubscribe or explicit purge.
+ */
+public class ObserverPatternWeakSubscribers {
+    public static void main(String[] args) throws InterruptedException {
+        WeakSubscriberRegistry<Subscriber> registry = new WeakSubscriberRegistry<>();
+        ConcretePublisher publisher = new ConcretePublisher(registry);
+
+        Subscriber kept = new ConcreteSubscriber();
+        publisher.subscribe(kept);
+        for (int i = 0; i < 1_000; i++) {
+            // Nobody holds on to these, and nobody unsubscribes them. (Not a lambda: a non-capturing lambda is a
+            // cached singleton and would never be collected.)
+            publisher.subscribe(new Subscriber() {
+                @Override
+                public void update(String state) {
+                }
+            });
+        }
+        System.out.println("Registered: " + registry.size());
+
+        // Give the collector a chance to clear the forgotten subscribers
+        for (int i = 0; i < 10 && registry.liveCount() > 1; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        registry.purge();
+
+        publisher.setState("State 1"); // only the kept subscriber is notified
+        System.out.println("Live: " + registry.liveCount() + ", reclaimed: " + registry.reclaimedCount());
+    }
+}
@@ -0,0 +1,23 @@
+package org.kmt.lld.design.patterns.behavorial.observer;
+
+/**
+ * What a bounded {@link Mailbox} does when a message arrives and the mailbox is already full.
+ */
+public enum OverflowPolicy {
+    /**
+     * The publisher waits until the subscriber has made room. Nothing is lost, but a slow subscriber slows the
+     * publisher down again.
+     */
+    BLOCK,
+
+    /**
+     * The oldest pending message is dropped to make room for the new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * All pending messages are dropped and only the new one is kept, so a subscriber that fell behind jumps straight
+     * to the latest state. This fits subscribers that only care about the current state, not the history.
+     */
+    CONFLATE
+}
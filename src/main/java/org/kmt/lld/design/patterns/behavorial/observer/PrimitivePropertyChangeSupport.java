@@ -0,0 +1,277 @@
+package org.kmt.lld.design.patterns.behavorial.observer;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.Arrays;
+import java.util.EventListener;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Boxing-free replacement for java.beans.PropertyChangeSupport.
+ *
+ * PropertyChangeSupport.firePropertyChange("state", int, int) boxes both values, allocates a PropertyChangeEvent
+ * and looks listeners up by property name under a lock on every call. Here:
+ * - properties are resolved to int indices once, with {@link #property(String)};
+ * - listeners are specialized for int, long and double values, so nothing is boxed;
+ * - listeners are kept in copy-on-write arrays, so firing takes no lock and allocates nothing.
+ *
+ * Plain PropertyChangeListeners are still supported for compatibility; they receive a PropertyChangeEvent as usual,
+ * which is only created when such a listener is registered.
+ */
+public class PrimitivePropertyChangeSupport {
+
+    public interface IntPropertyChangeListener extends EventListener {
+        void propertyChange(int property, int oldValue, int newValue);
+    }
+
+    public interface LongPropertyChangeListener extends EventListener {
+        void propertyChange(int property, long oldValue, long newValue);
+    }
+
+    public interface DoublePropertyChangeListener extends EventListener {
+        void propertyChange(int property, double oldValue, double newValue);
+    }
+
+    private final Object source;
+    private final List<String> propertyNames = new CopyOnWriteArrayList<>();
+    private final Map<String, Integer> propertyIndices = new HashMap<>();
+    private final Map<PropertyChangeListener, BeanListenerAdapter> beanListeners = new HashMap<>();
+
+    private final Listeners intListeners = new Listeners();
+    private final Listeners longListeners = new Listeners();
+    private final Listeners doubleListeners = new Listeners();
+
+    public PrimitivePropertyChangeSupport(Object source) {
+        this.source = source;
+    }
+
+    /**
+     * Resolves a property name to its index, registering the property on first use. Resolve once and keep the index.
+     */
+    public synchronized int property(String name) {
+        Integer index = propertyIndices.get(name);
+        if (index == null) {
+            index = propertyNames.size();
+            propertyNames.add(name);
+            propertyIndices.put(name, index);
+        }
+        return index;
+    }
+
+    public String propertyName(int property) {
+        return propertyNames.get(property);
+    }
+
+    // Listeners for every property
+
+    public void addIntPropertyChangeListener(IntPropertyChangeListener listener) {
+        intListeners.addForAll(listener);
+    }
+
+    public void removeIntPropertyChangeListener(IntPropertyChangeListener listener) {
+        intListeners.removeForAll(listener);
+    }
+
+    public void addLongPropertyChangeListener(LongPropertyChangeListener listener) {
+        longListeners.addForAll(listener);
+    }
+
+    public void removeLongPropertyChangeListener(LongPropertyChangeListener listener) {
+        longListeners.removeForAll(listener);
+    }
+
+    public void addDoublePropertyChangeListener(DoublePropertyChangeListener listener) {
+        doubleListeners.addForAll(listener);
+    }
+
+    public void removeDoublePropertyChangeListener(DoublePropertyChangeListener listener) {
+        doubleListeners.removeForAll(listener);
+    }
+
+    // Listeners for a single property
+
+    public void addIntPropertyChangeListener(int property, IntPropertyChangeListener listener) {
+        intListeners.add(property, listener);
+    }
+
+    public void removeIntPropertyChangeListener(int property, IntPropertyChangeListener listener) {
+        intListeners.remove(property, listener);
+    }
+
+    public void addLongPropertyChangeListener(int property, LongPropertyChangeListener listener) {
+        longListeners.add(property, listener);
+    }
+
+    public void removeLongPropertyChangeListener(int property, LongPropertyChangeListener listener) {
+        longListeners.remove(property, listener);
+    }
+
+    public void addDoublePropertyChangeListener(int property, DoublePropertyChangeListener listener) {
+        doubleListeners.add(property, listener);
+    }
+
+    public void removeDoublePropertyChangeListener(int property, DoublePropertyChangeListener listener) {
+        doubleListeners.remove(property, listener);
+    }
+
+    // java.beans listeners, notified of every property through a PropertyChangeEvent. As with PropertyChangeSupport,
+    // a listener added twice is notified twice, and removing it removes one registration.
+
+    public synchronized void addPropertyChangeListener(PropertyChangeListener listener) {
+        if (listener == null) {
+            return;
+        }
+        BeanListenerAdapter adapter = beanListeners.computeIfAbsent(listener, BeanListenerAdapter::new);
+        adapter.registrations++;
+        intListeners.addForAll(adapter);
+        longListeners.addForAll(adapter);
+        doubleListeners.addForAll(adapter);
+    }
+
+    public synchronized void removePropertyChangeListener(PropertyChangeListener listener) {
+        BeanListenerAdapter adapter = beanListeners.get(listener);
+        if (adapter != null) {
+            if (--adapter.registrations == 0) {
+                beanListeners.remove(listener);
+            }
+            intListeners.removeForAll(adapter);
+            longListeners.removeForAll(adapter);
+            doubleListeners.removeForAll(adapter);
+        }
+    }
+
+    // Firing; like PropertyChangeSupport, nothing is fired when the value did not change
+
+    public void fireIntPropertyChange(int property, int oldValue, int newValue) {
+        if (oldValue == newValue) {
+            return;
+        }
+        for (Object listener : intListeners.all) {
+            ((IntPropertyChangeListener) listener).propertyChange(property, oldValue, newValue);
+        }
+        for (Object listener : intListeners.of(property)) {
+            ((IntPropertyChangeListener) listener).propertyChange(property, oldValue, newValue);
+        }
+    }
+
+    public void fireLongPropertyChange(int property, long oldValue, long newValue) {
+        if (oldValue == newValue) {
+            return;
+        }
+        for (Object listener : longListeners.all) {
+            ((LongPropertyChangeListener) listener).propertyChange(property, oldValue, newValue);
+        }
+        for (Object listener : longListeners.of(property)) {
+            ((LongPropertyChangeListener) listener).propertyChange(property, oldValue, newValue);
+        }
+    }
+
+    public void fireDoublePropertyChange(int property, double oldValue, double newValue) {
+        // Same notion of "unchanged" as Double.equals: NaN equals NaN, 0.0 differs from -0.0
+        if (Double.compare(oldValue, newValue) == 0) {
+            return;
+        }
+        for (Object listener : doubleListeners.all) {
+            ((DoublePropertyChangeListener) listener).propertyChange(property, oldValue, newValue);
+        }
+        for (Object listener : doubleListeners.of(property)) {
+            ((DoublePropertyChangeListener) listener).propertyChange(property, oldValue, newValue);
+        }
+    }
+
+    /**
+     * Copy-on-write listener arrays of one value type: listeners for all properties plus listeners per property.
+     */
+    private static final class Listeners {
+        private static final Object[] EMPTY = new Object[0];
+
+        volatile Object[] all = EMPTY;
+        volatile Object[][] byProperty = new Object[0][];
+
+        Object[] of(int property) {
+            Object[][] current = byProperty;
+            return property < current.length ? current[property] : EMPTY;
+        }
+
+        synchronized void addForAll(Object listener) {
+            all = append(all, listener);
+        }
+
+        synchronized void removeForAll(Object listener) {
+            all = without(all, listener);
+        }
+
+        synchronized void add(int property, Object listener) {
+            Object[][] current = byProperty;
+            Object[][] next;
+            if (property < current.length) {
+                next = current.clone();
+            } else {
+                next = Arrays.copyOf(current, property + 1);
+                Arrays.fill(next, current.length, next.length, EMPTY);
+            }
+            next[property] = append(next[property], listener);
+            byProperty = next;
+        }
+
+        synchronized void remove(int property, Object listener) {
+            Object[][] current = byProperty;
+            if (property < current.length) {
+                Object[][] next = current.clone();
+                next[property] = without(next[property], listener);
+                byProperty = next;
+            }
+        }
+
+        private static Object[] append(Object[] listeners, Object listener) {
+            Object[] next = Arrays.copyOf(listeners, listeners.length + 1);
+            next[listeners.length] = listener;
+            return next;
+        }
+
+        private static Object[] without(Object[] listeners, Object listener) {
+            for (int i = 0; i < listeners.length; i++) {
+                if (listeners[i] == listener) {
+                    Object[] next = new Object[listeners.length - 1];
+                    System.arraycopy(listeners, 0, next, 0, i);
+                    System.arraycopy(listeners, i + 1, next, i, listeners.length - i - 1);
+                    return next;
+                }
+            }
+            return listeners;
+        }
+    }
+
+    /**
+     * Lets a java.beans.PropertyChangeListener listen to primitive changes. Boxes and allocates, as it always did.
+     */
+    private final class BeanListenerAdapter
+            implements IntPropertyChangeListener, LongPropertyChangeListener, DoublePropertyChangeListener {
+        private final PropertyChangeListener listener;
+        // Guarded by the enclosing support: times the listener was added and not removed yet, which is how many times
+        // the adapter is in the listener arrays
+        int registrations;
+
+        BeanListenerAdapter(PropertyChangeListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void propertyChange(int property, int oldValue, int newValue) {
+            listener.propertyChange(new PropertyChangeEvent(source, propertyName(property), oldValue, newValue));
+        }
+
+        @Override
+        public void propertyChange(int property, long oldValue, long newValue) {
+            listener.propertyChange(new PropertyChangeEvent(source, propertyName(property), oldValue, newValue));
+        }
+
+        @Override
+        public void propertyChange(int property, double oldValue, double newValue) {
+            listener.propertyChange(new PropertyChangeEvent(source, propertyName(property), oldValue, newValue));
+        }
+    }
+}
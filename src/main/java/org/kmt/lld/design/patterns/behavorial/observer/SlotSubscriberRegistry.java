@@ -0,0 +1,171 @@
+package org.kmt.lld.design.patterns.behavorial.observer;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Subscriber registry with O(1) unsubscription through handles.
+ *
+ * Problem:
+ * Removing a subscriber from a list means finding it (O(n)) and then shifting or copying everything behind it
+ * (O(n) again). With tens of thousands of subscribers coming and going, registration management ends up costing
+ * more than publishing.
+ *
+ * Solution:
+ * Every registration gets a slot in an array and a {@link Handle} that remembers the slot. Cancelling the handle
+ * clears the slot - a tombstone - without moving anything. New subscribers are appended behind the last used slot,
+ * so notification order stays registration order. Once tombstones outnumber live subscribers the array is compacted
+ * in one pass (and the handles are told their new slots), which keeps iteration at most twice the live count and
+ * makes removal amortized O(1).
+ *
+ * Notifying walks the array up to the last used slot and skips tombstones - no lock, no copy, no allocation. Writers
+ * only ever fill a slot before publishing the new end of the array and rebuild into a fresh array when compacting or
+ * growing, so a running notification sees either the old or the new state of a slot.
+ *
+ * {@link #remove(Object)} still has to search for the subscriber; hold on to the handle to get the O(1) path.
+ *
+ * @param <T> the subscriber type
+ */
+public final class SlotSubscriberRegistry<T> implements SubscriberRegistry<T> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * A registration. Cancelling it removes exactly this registration, in O(1).
+     */
+    public static final class Handle {
+        private final SlotSubscriberRegistry<?> registry;
+        // Index into the registry's current slots, -1 once cancelled; guarded by the registry
+        private int slot;
+
+        private Handle(SlotSubscriberRegistry<?> registry, int slot) {
+            this.registry = registry;
+            this.slot = slot;
+        }
+
+        /**
+         * @return true if this call removed the registration, false if it was already removed
+         */
+        public boolean cancel() {
+            return registry.cancel(this);
+        }
+
+        public boolean isActive() {
+            synchronized (registry) {
+                return slot >= 0;
+            }
+        }
+    }
+
+    // A subscriber array and how far it is used; replaced as a whole when compacting or growing
+    private static final class Slots {
+        final Object[] subscribers;
+        final Handle[] handles;
+        // Slots [0, end) have been used; written after the slot itself so readers never see an unfilled slot
+        volatile int end;
+
+        Slots(int capacity) {
+            subscribers = new Object[capacity];
+            handles = new Handle[capacity];
+        }
+    }
+
+    private volatile Slots slots = new Slots(MIN_CAPACITY);
+    // Guarded by this
+    private int live;
+
+    @Override
+    public void add(T subscriber) {
+        register(subscriber);
+    }
+
+    /**
+     * Adds a subscriber and returns the handle that removes it again.
+     */
+    public synchronized Handle register(T subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        Slots current = slots;
+        int end = current.end;
+        if (end == current.subscribers.length) {
+            // Full: drop the tombstones, and double the capacity if that does not free at least half
+            int capacity = live > end / 2 ? end * 2 : end;
+            current = rebuild(current, capacity);
+            end = current.end;
+        }
+        Handle handle = new Handle(this, end);
+        current.subscribers[end] = subscriber;
+        current.handles[end] = handle;
+        current.end = end + 1;
+        live++;
+        return handle;
+    }
+
+    @Override
+    public synchronized boolean remove(T subscriber) {
+        Slots current = slots;
+        int end = current.end;
+        for (int i = 0; i < end; i++) {
+            Object candidate = current.subscribers[i];
+            if (candidate != null && candidate.equals(subscriber)) {
+                return cancel(current.handles[i]);
+            }
+        }
+        return false;
+    }
+
+    private synchronized boolean cancel(Handle handle) {
+        int slot = handle.slot;
+        if (slot < 0) {
+            return false;
+        }
+        Slots current = slots;
+        current.subscribers[slot] = null;
+        current.handles[slot] = null;
+        handle.slot = -1;
+        live--;
+        int end = current.end;
+        if (end - live > live && end > MIN_CAPACITY) {
+            rebuild(current, Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, live)) * 2));
+        }
+        return true;
+    }
+
+    // Called with the lock held; copies the live subscribers, in order, into a new array and points the handles at it
+    private Slots rebuild(Slots current, int capacity) {
+        Slots next = new Slots(capacity);
+        int end = current.end;
+        int used = 0;
+        for (int i = 0; i < end; i++) {
+            Object subscriber = current.subscribers[i];
+            if (subscriber != null) {
+                Handle handle = current.handles[i];
+                next.subscribers[used] = subscriber;
+                next.handles[used] = handle;
+                handle.slot = used;
+                used++;
+            }
+        }
+        next.end = used;
+        slots = next;
+        return next;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super T> action) {
+        Slots current = slots;
+        Object[] subscribers = current.subscribers;
+        int end = current.end;
+        for (int i = 0; i < end; i++) {
+            Object subscriber = subscribers[i];
+            if (subscriber != null) {
+                action.accept((T) subscriber);
+            }
+        }
+    }
+
+    @Override
+    public synchronized int size() {
+        return live;
+    }
+}
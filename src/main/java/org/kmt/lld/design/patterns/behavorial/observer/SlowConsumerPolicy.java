@@ -0,0 +1,21 @@
+package org.kmt.lld.design.patterns.behavorial.observer;
+
+/**
+ * What a publisher does with a subscriber whose update calls keep going over the time budget.
+ */
+public enum SlowConsumerPolicy {
+    /**
+     * Keep delivering, but through a mailbox on the subscriber's own thread instead of the publisher's thread.
+     */
+    ASYNC,
+
+    /**
+     * Stop delivering until the subscriber is reinstated; skipped updates are counted.
+     */
+    SKIP,
+
+    /**
+     * Unsubscribe the subscriber.
+     */
+    EVICT
+}
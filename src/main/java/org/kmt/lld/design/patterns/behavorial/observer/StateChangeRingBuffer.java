@@ -0,0 +1,235 @@
+package org.kmt.lld.design.patterns.behavorial.observer;
+
+import org.kmt.lld.design.patterns.behavorial.observer.ObserverPatternUsingEventListener.StateChangeEvent;
+import org.kmt.lld.design.patterns.behavorial.observer.ObserverPatternUsingEventListener.StateChangeListener;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single-producer / multi-consumer ring buffer of reusable StateChangeEvents (Disruptor style).
+ *
+ * Problem:
+ * Notifying listeners inline allocates a new event per state change and runs every listener on the caller's thread.
+ *
+ * Solution:
+ * All events are allocated up front in a ring whose size is a power of two. Publishing claims the next sequence,
+ * writes the new state into the event already sitting in that slot and then advances the cursor. Every listener
+ * runs on its own thread and tracks its own sequence; it processes everything between its sequence and the cursor
+ * as one batch and publishes its progress once per batch. The producer never overtakes the slowest listener by more
+ * than the ring size (the sequence barrier), so slots are only reused after every listener is done with them.
+ *
+ * In steady state nothing is allocated and no locks are taken on either side.
+ *
+ * Rules:
+ * - Only one thread may publish.
+ * - Events are reused: a listener must copy what it needs out of the event and never keep the event itself.
+ */
+public final class StateChangeRingBuffer implements AutoCloseable {
+
+    // Spins before yielding, yields before parking; trades idle CPU for wake-up latency
+    private static final int SPIN_TRIES = 1_000;
+    private static final int YIELD_TRIES = 100;
+    private static final long PARK_NANOS = 10_000;
+
+    private final StateChangeEvent[] entries;
+    private final int mask;
+    private final Sequence cursor = new Sequence(-1);
+
+    // Copy-on-write, read by the producer to find the slowest listener
+    private volatile ListenerProcessor[] processors = new ListenerProcessor[0];
+
+    // Producer-only state
+    private long nextSequence = -1;
+    private long cachedGatingSequence = -1;
+
+    public StateChangeRingBuffer(Object source, int size) {
+        if (size < 1 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("size must be a power of two: " + size);
+        }
+        this.entries = new StateChangeEvent[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            entries[i] = new StateChangeEvent(source, 0);
+        }
+    }
+
+    /**
+     * Publishes a state change. Waits (spin, then yield) only if the slowest listener is a full ring behind.
+     */
+    public void publish(int newState) {
+        long next = nextSequence + 1;
+        long wrapPoint = next - entries.length;
+        if (wrapPoint > cachedGatingSequence) {
+            long minSequence;
+            int spins = 0;
+            while (wrapPoint > (minSequence = minimumSequence(next - 1))) {
+                if (++spins < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            }
+            cachedGatingSequence = minSequence;
+        }
+        entries[(int) next & mask].setNewState(newState);
+        nextSequence = next;
+        cursor.setRelease(next);
+    }
+
+    /**
+     * Starts delivering to the listener from the next published event onwards.
+     */
+    public synchronized void addListener(StateChangeListener listener) {
+        ListenerProcessor processor = new ListenerProcessor(listener, cursor.getAcquire());
+        ListenerProcessor[] current = processors;
+        ListenerProcessor[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = processor;
+        processors = next;
+        // Only now does the producer gate on the processor, so take the start sequence again: with the one read
+        // before, the producer could already have wrapped over slots the listener has yet to read
+        processor.sequence.setRelease(cursor.getAcquire());
+        processor.thread.start();
+    }
+
+    /**
+     * Stops delivering to the listener. Events it has not processed yet are not delivered.
+     */
+    public synchronized void removeListener(StateChangeListener listener) {
+        ListenerProcessor[] current = processors;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].listener == listener) {
+                ListenerProcessor[] next = new ListenerProcessor[current.length - 1];
+                System.arraycopy(current, 0, next, 0, i);
+                System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+                processors = next;
+                current[i].halt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Waits until every listener has processed everything published so far, then stops the listener threads.
+     */
+    @Override
+    public synchronized void close() {
+        long published = cursor.getAcquire();
+        for (ListenerProcessor processor : processors) {
+            while (processor.sequence.getAcquire() < published && processor.thread.isAlive()) {
+                Thread.yield();
+            }
+            processor.halt();
+        }
+        processors = new ListenerProcessor[0];
+    }
+
+    private long minimumSequence(long defaultSequence) {
+        long minimum = defaultSequence;
+        for (ListenerProcessor processor : processors) {
+            minimum = Math.min(minimum, processor.sequence.getAcquire());
+        }
+        return minimum;
+    }
+
+    /**
+     * Runs one listener on its own thread, consuming everything available in batches.
+     */
+    private final class ListenerProcessor implements Runnable {
+        final StateChangeListener listener;
+        final Sequence sequence;
+        final Thread thread;
+        volatile boolean running = true;
+
+        ListenerProcessor(StateChangeListener listener, long startSequence) {
+            this.listener = listener;
+            this.sequence = new Sequence(startSequence);
+            this.thread = new Thread(this, "ring-buffer-" + listener);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            long nextToProcess = sequence.getAcquire() + 1;
+            int idle = 0;
+            while (running) {
+                long available = cursor.getAcquire();
+                if (available < nextToProcess) {
+                    idle = idle(idle);
+                    continue;
+                }
+                idle = 0;
+                for (long s = nextToProcess; s <= available; s++) {
+                    try {
+                        listener.stateChanged(entries[(int) s & mask]);
+                    } catch (RuntimeException e) {
+                        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                    }
+                }
+                // One release store per batch frees all the slots of the batch for the producer
+                sequence.setRelease(available);
+                nextToProcess = available + 1;
+            }
+        }
+
+        private int idle(int idle) {
+            if (idle < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else if (idle < SPIN_TRIES + YIELD_TRIES) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+                return idle;
+            }
+            return idle + 1;
+        }
+
+        void halt() {
+            running = false;
+            // Let a producer waiting on this listener move on
+            sequence.setRelease(Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * A sequence counter padded on both sides so that the producer's cursor and every listener's sequence sit on
+     * their own cache lines and do not false-share.
+     */
+    @SuppressWarnings("unused")
+    static final class Sequence extends SequenceValue {
+        private long p9, p10, p11, p12, p13, p14, p15;
+
+        Sequence(long initial) {
+            setRelease(initial);
+        }
+    }
+
+    @SuppressWarnings("unused")
+    static class SequenceLeftPadding {
+        private long p1, p2, p3, p4, p5, p6, p7;
+    }
+
+    static class SequenceValue extends SequenceLeftPadding {
+        private static final VarHandle VALUE;
+
+        static {
+            try {
+                VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private long value;
+
+        long getAcquire() {
+            return (long) VALUE.getAcquire(this);
+        }
+
+        void setRelease(long newValue) {
+            VALUE.setRelease(this, newValue);
+        }
+    }
+}
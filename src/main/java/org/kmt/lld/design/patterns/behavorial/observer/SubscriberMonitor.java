@@ -0,0 +1,191 @@
+package org.kmt.lld.design.patterns.behavorial.observer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Timing and over-budget bookkeeping for one subscriber.
+ *
+ * Publishers time every update call and report it with {@link #record(long)}. Calls that take longer than the budget
+ * are strikes; after the configured number of consecutive strikes the monitor applies its {@link SlowConsumerPolicy}
+ * once by moving to the matching {@link Status}. A single call within budget resets the strikes, so a one-off pause
+ * (a GC, a page fault) does not get a subscriber punished.
+ *
+ * A {@link Delivery} applies the status to a subscriber's updates, so that monitored publishers only adapt their
+ * subscriber type to it.
+ */
+public final class SubscriberMonitor {
+
+    public enum Status {
+        ACTIVE, ASYNC, SKIPPED, EVICTED
+    }
+
+    private final String name;
+    private final long budgetNanos;
+    private final int maxStrikes;
+    private final SlowConsumerPolicy policy;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final AtomicInteger strikes = new AtomicInteger();
+    private final AtomicReference<Status> status = new AtomicReference<>(Status.ACTIVE);
+    private final LongAdder skipped = new LongAdder();
+
+    public SubscriberMonitor(String name, long budgetNanos, int maxStrikes, SlowConsumerPolicy policy) {
+        this.name = name;
+        this.budgetNanos = budgetNanos;
+        this.maxStrikes = maxStrikes;
+        this.policy = policy;
+    }
+
+    /**
+     * Records the duration of one update call.
+     *
+     * @return true if this call pushed the subscriber over the limit and the policy has just been applied
+     */
+    public boolean record(long nanos) {
+        latencies.record(nanos);
+        if (nanos <= budgetNanos) {
+            strikes.set(0);
+            return false;
+        }
+        return strikes.incrementAndGet() >= maxStrikes && status.compareAndSet(Status.ACTIVE, statusFor(policy));
+    }
+
+    public void recordSkipped() {
+        skipped.increment();
+    }
+
+    /**
+     * Puts a skipped subscriber back on the synchronous path.
+     */
+    public void reinstate() {
+        strikes.set(0);
+        status.compareAndSet(Status.SKIPPED, Status.ACTIVE);
+    }
+
+    public Status status() {
+        return status.get();
+    }
+
+    public LatencyHistogram latencies() {
+        return latencies;
+    }
+
+    public long skippedCount() {
+        return skipped.sum();
+    }
+
+    /**
+     * Delivers updates to the subscriber as this monitor's status says.
+     *
+     * @param subscriber makes one update call
+     * @param mailboxCapacity size of the mailbox used once the subscriber is moved to ASYNC
+     * @param overflowPolicy what that mailbox does when the subscriber falls a whole mailbox behind
+     * @param evict unsubscribes the subscriber when it is EVICTED
+     */
+    public <M> Delivery<M> delivery(Consumer<? super M> subscriber, int mailboxCapacity, OverflowPolicy overflowPolicy,
+                                    Runnable evict) {
+        return new Delivery<>(this, subscriber, mailboxCapacity, overflowPolicy, evict);
+    }
+
+    private static Status statusFor(SlowConsumerPolicy policy) {
+        return switch (policy) {
+            case ASYNC -> Status.ASYNC;
+            case SKIP -> Status.SKIPPED;
+            case EVICT -> Status.EVICTED;
+        };
+    }
+
+    @Override
+    public String toString() {
+        return name + " [" + status() + "] " + latencies + " skipped=" + skippedCount();
+    }
+
+    /**
+     * Times the subscriber's update calls while it is ACTIVE and applies the policy once it goes over the limit:
+     * later updates go through a mailbox drained on the subscriber's own thread (ASYNC), are counted and dropped
+     * (SKIPPED), or the subscriber is unsubscribed (EVICTED).
+     *
+     * @param <M> one update, as the subscriber receives it
+     */
+    public static final class Delivery<M> implements AutoCloseable {
+        private final SubscriberMonitor monitor;
+        private final Consumer<? super M> subscriber;
+        private final int mailboxCapacity;
+        private final OverflowPolicy overflowPolicy;
+        private final Runnable evict;
+        private volatile Mailbox<M> mailbox;
+
+        private Delivery(SubscriberMonitor monitor, Consumer<? super M> subscriber, int mailboxCapacity,
+                         OverflowPolicy overflowPolicy, Runnable evict) {
+            this.monitor = monitor;
+            this.subscriber = subscriber;
+            this.mailboxCapacity = mailboxCapacity;
+            this.overflowPolicy = overflowPolicy;
+            this.evict = evict;
+        }
+
+        public void deliver(M update) {
+            switch (monitor.status()) {
+                case ACTIVE -> {
+                    long start = System.nanoTime();
+                    subscriber.accept(update);
+                    recordCall(System.nanoTime() - start);
+                }
+                case ASYNC -> mailbox().offer(update);
+                case SKIPPED, EVICTED -> monitor.recordSkipped();
+            }
+        }
+
+        /**
+         * Whether updates are made on the publisher's thread. A publisher can then call the subscriber itself and
+         * report the time with {@link #recordCall(long)}, instead of building an update for {@link #deliver}.
+         */
+        public boolean active() {
+            return monitor.status() == Status.ACTIVE;
+        }
+
+        /**
+         * Records one update call and applies the policy if it pushed the subscriber over the limit.
+         */
+        public void recordCall(long nanos) {
+            if (monitor.record(nanos)) {
+                switch (monitor.status()) {
+                    case ASYNC -> mailbox();
+                    case EVICTED -> evict.run();
+                    default -> {
+                    }
+                }
+            }
+        }
+
+        private Mailbox<M> mailbox() {
+            Mailbox<M> current = mailbox;
+            if (current == null) {
+                synchronized (this) {
+                    current = mailbox;
+                    if (current == null) {
+                        // The mailbox thread keeps timing the subscriber; it is no longer ACTIVE, so nothing more
+                        // is applied
+                        current = new Mailbox<>("slow-" + monitor.name, mailboxCapacity, overflowPolicy, update -> {
+                            long start = System.nanoTime();
+                            subscriber.accept(update);
+                            recordCall(System.nanoTime() - start);
+                        });
+                        mailbox = current;
+                    }
+                }
+            }
+            return current;
+        }
+
+        @Override
+        public void close() {
+            Mailbox<M> current = mailbox;
+            if (current != null) {
+                current.close();
+            }
+        }
+    }
+}
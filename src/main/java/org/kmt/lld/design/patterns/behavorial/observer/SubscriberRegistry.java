@@ -0,0 +1,34 @@
+package org.kmt.lld.design.patterns.behavorial.observer;
+
+import java.util.function.Consumer;
+
+/**
+ * SubscriberRegistry interface
+ *
+ * Holds the subscribers of a publisher. Publishers only ever add, remove and iterate, so the way subscribers are
+ * stored can be swapped (Strategy) without touching the publisher: a plain list for single-threaded code, a
+ * copy-on-write snapshot for concurrent publish/subscribe, and so on.
+ *
+ * @param <T> the subscriber type
+ */
+public interface SubscriberRegistry<T> {
+
+    /**
+     * Adds a subscriber. Adding the same subscriber twice registers it twice, just like a list would.
+     */
+    void add(T subscriber);
+
+    /**
+     * Removes the first registration of the subscriber.
+     *
+     * @return true if the subscriber was registered
+     */
+    boolean remove(T subscriber);
+
+    /**
+     * Calls the action for every registered subscriber, in registration order.
+     */
+    void forEach(Consumer<? super T> action);
+
+    int size();
+}
@@ -0,0 +1,161 @@
+package org.kmt.lld.design.patterns.behavorial.observer;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * JMH comparison of the registries a {@link ConcretePublisher} can use.
+ *
+ * - ARRAY_LIST: the original ArrayList. It is not safe to mutate while publishing, so it is guarded by a lock
+ *   (the only way to use it concurrently) and every publish goes through that lock.
+ * - COPY_ON_WRITE_ARRAY_LIST: java.util.concurrent.CopyOnWriteArrayList.
+ * - COPY_ON_WRITE_REGISTRY: {@link CopyOnWriteSubscriberRegistry}.
+ * - SLOT_REGISTRY: {@link SlotSubscriberRegistry}.
+ *
+ * The "publish" benchmark only publishes. The "churn" group runs publishing threads next to one thread that keeps
+ * subscribing and unsubscribing, which is where the ArrayList either throws or has to lock.
+ *
+ * Run with: main(), or pass "-t 32" etc. through the JMH command line to push the publisher thread count.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SubscriberRegistryBenchmark {
+
+    public enum Registry {
+        ARRAY_LIST, COPY_ON_WRITE_ARRAY_LIST, COPY_ON_WRITE_REGISTRY, SLOT_REGISTRY
+    }
+
+    @Param({"10", "1000", "10000"})
+    int subscriberCount;
+
+    @Param
+    Registry registry;
+
+    ConcretePublisher publisher;
+    Subscriber churningSubscriber;
+
+    @Setup
+    public void setUp() {
+        SubscriberRegistry<Subscriber> subscribers = switch (registry) {
+            case ARRAY_LIST -> new LockedListRegistry<>();
+            case COPY_ON_WRITE_ARRAY_LIST -> new ListRegistry<>(new CopyOnWriteArrayList<>());
+            case COPY_ON_WRITE_REGISTRY -> new CopyOnWriteSubscriberRegistry<>();
+            case SLOT_REGISTRY -> new SlotSubscriberRegistry<>();
+        };
+        publisher = new ConcretePublisher(subscribers);
+        for (int i = 0; i < subscriberCount; i++) {
+            publisher.subscribe(new NoOpSubscriber());
+        }
+        churningSubscriber = new NoOpSubscriber();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void publish() {
+        publisher.setState("tick");
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(8)
+    public void churnPublish() {
+        publisher.setState("tick");
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(1)
+    public void churnSubscribe() {
+        publisher.subscribe(churningSubscriber);
+        publisher.unsubscribe(churningSubscriber);
+    }
+
+    // Keeps the JIT from removing the update call
+    static final class NoOpSubscriber implements Subscriber {
+        String state;
+
+        @Override
+        public void update(String state) {
+            this.state = state;
+            Blackhole.consumeCPU(1);
+        }
+    }
+
+    // The original ArrayList with a lock around every access
+    static final class LockedListRegistry<T> implements SubscriberRegistry<T> {
+        private final List<T> subscribers = new ArrayList<>();
+
+        @Override
+        public synchronized void add(T subscriber) {
+            subscribers.add(subscriber);
+        }
+
+        @Override
+        public synchronized boolean remove(T subscriber) {
+            return subscribers.remove(subscriber);
+        }
+
+        @Override
+        public synchronized void forEach(Consumer<? super T> action) {
+            for (T subscriber : subscribers) {
+                action.accept(subscriber);
+            }
+        }
+
+        @Override
+        public synchronized int size() {
+            return subscribers.size();
+        }
+    }
+
+    static final class ListRegistry<T> implements SubscriberRegistry<T> {
+        private final List<T> subscribers;
+
+        ListRegistry(List<T> subscribers) {
+            this.subscribers = subscribers;
+        }
+
+        @Override
+        public void add(T subscriber) {
+            subscribers.add(subscriber);
+        }
+
+        @Override
+        public boolean remove(T subscriber) {
+            return subscribers.remove(subscriber);
+        }
+
+        @Override
+        public void forEach(Consumer<? super T> action) {
+            for (T subscriber : subscribers) {
+                action.accept(subscriber);
+            }
+        }
+
+        @Override
+        public int size() {
+            return subscribers.size();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SubscriberRegistryBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,162 @@
+package org.kmt.lld.design.patterns.behavorial.observer;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Subscriptions to hierarchical topics, with wildcards, matched through a trie.
+ *
+ * Problem:
+ * With topics like {@code stocks.NASDAQ.AAPL.price} and patterns like {@code stocks.*.AAPL.price} or
+ * {@code stocks.NASDAQ.#}, the obvious implementation tests every registered pattern against every published topic.
+ * Dispatch then costs O(registered patterns) even when only a handful match.
+ *
+ * Solution:
+ * Patterns are split into levels at '.' and stored as paths in a trie, each node holding the subscribers of the
+ * patterns that end there. A topic is matched by walking the trie level by level, following at each node only the
+ * exact child for the topic's level, the '*' child and the '#' child. The walk visits just the paths that can still
+ * match, so dispatch cost is proportional to the topic's depth and the number of matching subscriptions, not to the
+ * number registered.
+ *
+ * - {@code *} matches exactly one level.
+ * - {@code #} matches any number of levels, including none; it must be the last level of a pattern.
+ *
+ * A subscriber registered with several patterns that match the same topic is called once per matching pattern.
+ * Matching never locks: children live in concurrent maps and subscribers in copy-on-write registries. Subscribing
+ * and unsubscribing are serialized, and unsubscribing prunes nodes nobody needs any more.
+ *
+ * @param <T> the subscriber type
+ */
+public final class TopicTrie<T> {
+
+    private static final String SINGLE_LEVEL = "*";
+    private static final String MULTI_LEVEL = "#";
+
+    private static final class Node<T> {
+        final Map<String, Node<T>> children = new ConcurrentHashMap<>();
+        final CopyOnWriteSubscriberRegistry<T> subscribers = new CopyOnWriteSubscriberRegistry<>();
+        // The '*' and '#' children, also in the map; kept apart so matching does not have to look them up
+        volatile Node<T> singleLevel;
+        volatile Node<T> multiLevel;
+
+        boolean isUnused() {
+            return subscribers.size() == 0 && children.isEmpty();
+        }
+    }
+
+    private final Node<T> root = new Node<>();
+    // Guarded by this
+    private int subscriptions;
+
+    public synchronized void subscribe(String pattern, T subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        String[] levels = split(pattern);
+        for (int i = 0; i < levels.length - 1; i++) {
+            if (levels[i].equals(MULTI_LEVEL)) {
+                throw new IllegalArgumentException("'#' must be the last level: " + pattern);
+            }
+        }
+        Node<T> node = root;
+        for (String level : levels) {
+            Node<T> parent = node;
+            node = parent.children.computeIfAbsent(level, key -> new Node<>());
+            if (level.equals(SINGLE_LEVEL)) {
+                parent.singleLevel = node;
+            } else if (level.equals(MULTI_LEVEL)) {
+                parent.multiLevel = node;
+            }
+        }
+        node.subscribers.add(subscriber);
+        subscriptions++;
+    }
+
+    /**
+     * Removes one subscription of the subscriber to exactly this pattern.
+     *
+     * @return true if there was one
+     */
+    public synchronized boolean unsubscribe(String pattern, T subscriber) {
+        String[] levels = split(pattern);
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Node<T>[] path = new Node[levels.length + 1];
+        path[0] = root;
+        for (int i = 0; i < levels.length; i++) {
+            path[i + 1] = path[i].children.get(levels[i]);
+            if (path[i + 1] == null) {
+                return false;
+            }
+        }
+        if (!path[levels.length].subscribers.remove(subscriber)) {
+            return false;
+        }
+        subscriptions--;
+        // Prune from the leaf up; a matcher still walking a pruned node just finds it empty
+        for (int i = levels.length; i > 0 && path[i].isUnused(); i--) {
+            Node<T> parent = path[i - 1];
+            parent.children.remove(levels[i - 1]);
+            if (parent.singleLevel == path[i]) {
+                parent.singleLevel = null;
+            } else if (parent.multiLevel == path[i]) {
+                parent.multiLevel = null;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Calls the action for the subscriber of every subscription whose pattern matches the topic.
+     */
+    public void forEachMatch(String topic, Consumer<? super T> action) {
+        match(root, split(topic), 0, action);
+    }
+
+    private static <T> void match(Node<T> node, String[] levels, int depth, Consumer<? super T> action) {
+        // '#' below this node matches all remaining levels, including none
+        Node<T> multiLevel = node.multiLevel;
+        if (multiLevel != null) {
+            multiLevel.subscribers.forEach(action);
+        }
+        if (depth == levels.length) {
+            node.subscribers.forEach(action);
+            return;
+        }
+        Node<T> exact = node.children.get(levels[depth]);
+        if (exact != null && exact != node.singleLevel && exact != multiLevel) {
+            match(exact, levels, depth + 1, action);
+        }
+        Node<T> singleLevel = node.singleLevel;
+        if (singleLevel != null) {
+            match(singleLevel, levels, depth + 1, action);
+        }
+    }
+
+    /**
+     * Number of subscriptions.
+     */
+    public synchronized int size() {
+        return subscriptions;
+    }
+
+    // Splits at '.' without a regex
+    private static String[] split(String topic) {
+        int levels = 1;
+        for (int i = 0; i < topic.length(); i++) {
+            if (topic.charAt(i) == '.') {
+                levels++;
+            }
+        }
+        String[] result = new String[levels];
+        int start = 0;
+        for (int level = 0; level < levels; level++) {
+            int end = topic.indexOf('.', start);
+            if (end < 0) {
+                end = topic.length();
+            }
+            result[level] = topic.substring(start, end);
+            start = end + 1;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,124 @@
+package org.kmt.lld.design.patterns.behavorial.observer;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of finding the subscriptions that match a published topic.
+ *
+ * - TRIE: {@link TopicTrie}.
+ * - LINEAR_SCAN: every pattern tested against the topic, which is what a list of (pattern, subscriber) pairs does.
+ *
+ * Topics are {@code stocks.<exchange>.<symbol>.<field>} over 4 exchanges, 5000 symbols and 5 fields. The
+ * subscriptions are a mix of exact topics (90%), all fields of a symbol on an exchange ({@code stocks.E.S.*}, 8%),
+ * a field of a symbol on any exchange ({@code stocks.*.S.price}, about 2%) and 100 whole exchanges
+ * ({@code stocks.E.#}). Each publish goes to a random topic; the matched subscribers are passed to a Blackhole.
+ *
+ * Run with: main()
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TopicTrieBenchmark {
+
+    private static final String[] EXCHANGES = {"NASDAQ", "NYSE", "LSE", "TSE"};
+    private static final String[] FIELDS = {"price", "volume", "bid", "ask", "trade"};
+    private static final int SYMBOLS = 5000;
+    private static final int WHOLE_EXCHANGE_SUBSCRIPTIONS = 100;
+
+    public enum Matcher {
+        TRIE, LINEAR_SCAN
+    }
+
+    @Param({"10000", "100000"})
+    int subscriptionCount;
+
+    @Param
+    Matcher matcher;
+
+    TopicTrie<Object> trie;
+    List<String[]> patterns;
+    List<Object> patternSubscribers;
+    String[] topics;
+    int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        trie = new TopicTrie<>();
+        patterns = new ArrayList<>();
+        patternSubscribers = new ArrayList<>();
+        for (int i = 0; i < subscriptionCount; i++) {
+            String exchange = EXCHANGES[random.nextInt(EXCHANGES.length)];
+            String symbol = "S" + random.nextInt(SYMBOLS);
+            String pattern;
+            if (i < WHOLE_EXCHANGE_SUBSCRIPTIONS) {
+                pattern = "stocks." + exchange + ".#";
+            } else {
+                int kind = random.nextInt(100);
+                if (kind < 90) {
+                    pattern = "stocks." + exchange + "." + symbol + "." + FIELDS[random.nextInt(FIELDS.length)];
+                } else if (kind < 98) {
+                    pattern = "stocks." + exchange + "." + symbol + ".*";
+                } else {
+                    pattern = "stocks.*." + symbol + ".price";
+                }
+            }
+            Object subscriber = new Object();
+            trie.subscribe(pattern, subscriber);
+            patterns.add(pattern.split("\\."));
+            patternSubscribers.add(subscriber);
+        }
+        topics = new String[1 << 14];
+        for (int i = 0; i < topics.length; i++) {
+            topics[i] = "stocks." + EXCHANGES[random.nextInt(EXCHANGES.length)] + ".S" + random.nextInt(SYMBOLS)
+                    + "." + FIELDS[random.nextInt(FIELDS.length)];
+        }
+    }
+
+    @Benchmark
+    public void publish(Blackhole blackhole) {
+        String topic = topics[next++ & (topics.length - 1)];
+        if (matcher == Matcher.TRIE) {
+            trie.forEachMatch(topic, blackhole::consume);
+        } else {
+            String[] levels = topic.split("\\.");
+            for (int i = 0; i < patterns.size(); i++) {
+                if (matches(patterns.get(i), levels)) {
+                    blackhole.consume(patternSubscribers.get(i));
+                }
+            }
+        }
+    }
+
+    private static boolean matches(String[] pattern, String[] levels) {
+        for (int i = 0; i < pattern.length; i++) {
+            if (pattern[i].equals("#")) {
+                return true;
+            }
+            if (i == levels.length || !pattern[i].equals("*") && !pattern[i].equals(levels[i])) {
+                return false;
+            }
+        }
+        return pattern.length == levels.length;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TopicTrieBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,134 @@
+package org.kmt.lld.design.patterns.behavorial.observer;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Subscriber registry that holds its subscribers weakly.
+ *
+ * Problem:
+ * A subscriber that is never unsubscribed stays reachable from the publisher forever. In a long-running process
+ * forgotten subscribers pile up: the heap grows and every notification pays for subscribers nobody uses any more.
+ *
+ * Solution:
+ * Keep only a WeakReference to each subscriber. Once the rest of the application drops a subscriber, the garbage
+ * collector clears the reference and enqueues it on a ReferenceQueue. Cleared references are purged in bulk, one
+ * snapshot copy for all of them, whenever the registry is modified or {@link #purge()} is called - never while
+ * notifying. Notifying walks the same kind of immutable snapshot as {@link CopyOnWriteSubscriberRegistry} and simply
+ * skips references that are already cleared.
+ *
+ * Note that the registry does not keep subscribers alive: whoever creates a subscriber has to hold on to it for as
+ * long as it should receive updates.
+ *
+ * @param <T> the subscriber type
+ */
+public final class WeakSubscriberRegistry<T> implements SubscriberRegistry<T> {
+
+    private static final WeakReference<?>[] EMPTY = new WeakReference<?>[0];
+
+    private final ReferenceQueue<T> cleared = new ReferenceQueue<>();
+    // Never mutated once published; writers replace it under the lock
+    private volatile WeakReference<?>[] snapshot = EMPTY;
+    private long reclaimed;
+
+    @Override
+    public synchronized void add(T subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        WeakReference<?>[] current = purgeCleared();
+        WeakReference<?>[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = new WeakReference<>(subscriber, cleared);
+        snapshot = next;
+    }
+
+    @Override
+    public synchronized boolean remove(T subscriber) {
+        WeakReference<?>[] current = purgeCleared();
+        for (int i = 0; i < current.length; i++) {
+            if (subscriber.equals(current[i].get())) {
+                WeakReference<?>[] next = new WeakReference<?>[current.length - 1];
+                System.arraycopy(current, 0, next, 0, i);
+                System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+                snapshot = next;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super T> action) {
+        for (WeakReference<?> reference : snapshot) {
+            T subscriber = (T) reference.get();
+            if (subscriber != null) {
+                action.accept(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Number of registrations, including subscribers that were collected but not purged yet.
+     */
+    @Override
+    public int size() {
+        return snapshot.length;
+    }
+
+    /**
+     * Drops the registrations of all subscribers that have been garbage collected.
+     *
+     * @return the number of registrations dropped
+     */
+    public synchronized int purge() {
+        int before = snapshot.length;
+        return before - purgeCleared().length;
+    }
+
+    /**
+     * Number of registered subscribers that are still reachable.
+     */
+    public int liveCount() {
+        int live = 0;
+        for (WeakReference<?> reference : snapshot) {
+            if (!reference.refersTo(null)) {
+                live++;
+            }
+        }
+        return live;
+    }
+
+    /**
+     * Total number of registrations purged because their subscriber was garbage collected.
+     */
+    public synchronized long reclaimedCount() {
+        return reclaimed;
+    }
+
+    // Called with the lock held; replaces the snapshot with one without cleared references, copying it at most once
+    private WeakReference<?>[] purgeCleared() {
+        WeakReference<?>[] current = snapshot;
+        Reference<? extends T> reference = cleared.poll();
+        if (reference == null) {
+            return current;
+        }
+        while (cleared.poll() != null) {
+            // draining: one pass over the snapshot below removes all of them
+        }
+        WeakReference<?>[] next = new WeakReference<?>[current.length];
+        int live = 0;
+        for (WeakReference<?> candidate : current) {
+            if (!candidate.refersTo(null)) {
+                next[live++] = candidate;
+            }
+        }
+        if (live < current.length) {
+            reclaimed += current.length - live;
+            snapshot = Arrays.copyOf(next, live);
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,268 @@
+package org.kmt.lld.design.patterns.behavorial.state;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Table-driven state machine, compiled from a state/event definition.
+ *
+ * Problem:
+ * With the State pattern every request is a virtual call on the current state object, and which state comes next is
+ * decided inside that call. Once a machine has more than two states the call site is megamorphic, and the structure of
+ * the machine - which events lead where - exists only as code spread over the states.
+ *
+ * Solution:
+ * The machine is described up front as (state, event) -> (next state, action) entries and compiled into a dense
+ * transition table indexed by state and event, plus a table of actions alongside it. A request is then one array
+ * lookup for the next state and, when the transition has one, one call of the action. The table is laid out as
+ * {@code [state][event]} in a single array with the row length rounded up to a power of two. An entry holds the offset
+ * of the next state's row rather than its ordinal, so the next lookup is that offset or'ed with the event: running
+ * the machine is a chain of one load and one or per event. Entries with an action, and missing transitions, are
+ * negative, which keeps the action table off the path of transitions without one.
+ *
+ * States and events are enums; existing enum states map onto the machine either with one
+ * {@link Builder#transition(Enum, Enum, Enum, Action)} per entry or all at once with
+ * {@link Builder#transitions(TransitionFunction)}, which asks a function (e.g. a method on the state enum) for the
+ * next state of every pair while compiling.
+ *
+ * A compiled machine is immutable and can be shared; each {@link Instance} holds one current state and is not
+ * thread-safe. An event with no transition from the current state throws IllegalStateException, an event ordinal out
+ * of range IndexOutOfBoundsException.
+ *
+ * @param <S> the state enum
+ * @param <E> the event enum
+ */
+public final class StateMachine<S extends Enum<S>, E extends Enum<E>> {
+
+    // Table entries: the next state's row offset, ~offset when the transition has an action, NO_TRANSITION if none
+    private static final int NO_TRANSITION = Integer.MIN_VALUE;
+
+    /**
+     * What to do on a transition; receives state and event ordinals.
+     */
+    @FunctionalInterface
+    public interface Action {
+        void run(int from, int event, int to);
+    }
+
+    /**
+     * Next state for a state and event, or null if the event is not handled in that state.
+     */
+    @FunctionalInterface
+    public interface TransitionFunction<S, E> {
+        S next(S state, E event);
+    }
+
+    private final S[] states;
+    private final E[] events;
+    private final int eventShift;
+    // Both indexed by state << eventShift | event
+    private final int[] transitions;
+    private final Action[] actions;
+    private final int initialState;
+
+    private StateMachine(Builder<S, E> builder) {
+        this.states = builder.states;
+        this.events = builder.events;
+        this.eventShift = builder.eventShift;
+        this.actions = builder.actions.clone();
+        this.transitions = new int[builder.nextStates.length];
+        for (int index = 0; index < transitions.length; index++) {
+            int next = builder.nextStates[index];
+            int row = next << eventShift;
+            transitions[index] = next < 0 ? NO_TRANSITION : actions[index] == null ? row : ~row;
+        }
+        this.initialState = builder.initialState.ordinal();
+    }
+
+    public static <S extends Enum<S>, E extends Enum<E>> Builder<S, E> builder(Class<S> stateType,
+                                                                               Class<E> eventType) {
+        return new Builder<>(stateType, eventType);
+    }
+
+    /**
+     * A new instance of the machine, in the initial state.
+     */
+    public Instance start() {
+        return new Instance(initialState);
+    }
+
+    public Instance start(S state) {
+        return new Instance(state.ordinal());
+    }
+
+    /**
+     * Next state ordinal for a state and event ordinal, without running the action; -1 if there is no transition.
+     *
+     * @throws IndexOutOfBoundsException if either ordinal is out of range
+     */
+    public int next(int state, int event) {
+        Objects.checkIndex(state, states.length);
+        Objects.checkIndex(event, events.length);
+        int entry = transitions[state << eventShift | event];
+        return entry == NO_TRANSITION ? -1 : (entry < 0 ? ~entry : entry) >>> eventShift;
+    }
+
+    public S state(int ordinal) {
+        return states[ordinal];
+    }
+
+    public E event(int ordinal) {
+        return events[ordinal];
+    }
+
+    /**
+     * A running copy of the machine: the current state and nothing else.
+     */
+    public final class Instance {
+        // Offset of the current state's row in the tables
+        private int row;
+
+        private Instance(int state) {
+            this.row = state << eventShift;
+        }
+
+        /**
+         * Takes the transition for the event from the current state and runs its action.
+         *
+         * @return the new state's ordinal
+         * @throws IndexOutOfBoundsException if the event ordinal is out of range
+         */
+        public int fire(int event) {
+            // Rows are padded to a power of two: an unchecked ordinal would land in another column or row
+            Objects.checkIndex(event, events.length);
+            int entry = transitions[row | event];
+            if (entry < 0) {
+                entry = take(row, event, entry);
+            }
+            row = entry;
+            return entry >>> eventShift;
+        }
+
+        public S fire(E event) {
+            return states[fire(event.ordinal())];
+        }
+
+        /**
+         * Fires the events eventOrdinals[from] to eventOrdinals[to - 1] in order; faster than firing them one at a
+         * time.
+         *
+         * @return the new state's ordinal
+         * @throws IndexOutOfBoundsException if an event ordinal is out of range; the events before it have been fired
+         */
+        public int fire(int[] eventOrdinals, int from, int to) {
+            Objects.checkFromToIndex(from, to, eventOrdinals.length);
+            int current = row;
+            try {
+                for (int i = from; i < to; i++) {
+                    int event = Objects.checkIndex(eventOrdinals[i], events.length);
+                    int entry = transitions[current | event];
+                    if (entry < 0) {
+                        entry = take(current, event, entry);
+                    }
+                    current = entry;
+                }
+            } finally {
+                row = current;
+            }
+            return current >>> eventShift;
+        }
+
+        public int stateOrdinal() {
+            return row >>> eventShift;
+        }
+
+        public S state() {
+            return states[row >>> eventShift];
+        }
+    }
+
+    // A transition with an action, or none at all
+    private int take(int row, int event, int entry) {
+        if (entry == NO_TRANSITION) {
+            throw new IllegalStateException("no transition from " + states[row >>> eventShift] + " on "
+                    + events[event]);
+        }
+        int next = ~entry;
+        actions[row | event].run(row >>> eventShift, event, next >>> eventShift);
+        return next;
+    }
+
+    /**
+     * Collects the transitions of a machine and compiles them into its tables.
+     */
+    public static final class Builder<S extends Enum<S>, E extends Enum<E>> {
+        private final S[] states;
+        private final E[] events;
+        private final int eventShift;
+        private final int[] nextStates;
+        private final Action[] actions;
+        private S initialState;
+
+        private Builder(Class<S> stateType, Class<E> eventType) {
+            this.states = stateType.getEnumConstants();
+            this.events = eventType.getEnumConstants();
+            if (states.length == 0 || events.length == 0) {
+                throw new IllegalArgumentException("a state machine needs at least one state and one event");
+            }
+            this.eventShift = 32 - Integer.numberOfLeadingZeros(events.length - 1);
+            this.nextStates = new int[states.length << eventShift];
+            this.actions = new Action[nextStates.length];
+            Arrays.fill(nextStates, -1);
+            this.initialState = states[0];
+        }
+
+        /**
+         * Defaults to the first state.
+         */
+        public Builder<S, E> initial(S state) {
+            this.initialState = Objects.requireNonNull(state);
+            return this;
+        }
+
+        public Builder<S, E> transition(S from, E event, S to) {
+            return transition(from, event, to, null);
+        }
+
+        /**
+         * Replaces any transition defined before for the same state and event.
+         */
+        public Builder<S, E> transition(S from, E event, S to, Action action) {
+            int index = from.ordinal() << eventShift | event.ordinal();
+            nextStates[index] = to.ordinal();
+            actions[index] = action;
+            return this;
+        }
+
+        /**
+         * Adds a transition for every state and event the function returns a next state for, without actions.
+         */
+        public Builder<S, E> transitions(TransitionFunction<S, E> function) {
+            for (S from : states) {
+                for (E event : events) {
+                    S to = function.next(from, event);
+                    if (to != null) {
+                        transition(from, event, to);
+                    }
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Sets the action of a transition defined before.
+         */
+        public Builder<S, E> action(S from, E event, Action action) {
+            int index = from.ordinal() << eventShift | event.ordinal();
+            if (nextStates[index] < 0) {
+                throw new IllegalArgumentException("no transition from " + from + " on " + event);
+            }
+            actions[index] = action;
+            return this;
+        }
+
+        public StateMachine<S, E> build() {
+            return new StateMachine<>(this);
+        }
+    }
+}
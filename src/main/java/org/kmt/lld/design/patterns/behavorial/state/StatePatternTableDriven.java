@@ -0,0 +1,79 @@
+package org.kmt.lld.design.patterns.behavorial.state;
+
+/**
+ * State Pattern with a Compiled Transition Table
+ *
+ * This implementation keeps the enum states of {@link StatePatternEnum} but takes the transitions out of their
+ * handle methods: each state only says which state an event leads to, and {@link StateMachine} compiles that into a
+ * table. A request is an array lookup plus the transition's action, instead of a virtual call on the current state.
+ */
+
+public class StatePatternTableDriven {
+
+    /**
+     * Event enum
+     *
+     * The requests the context can receive.
+     */
+    public enum Event {
+        REQUEST
+    }
+
+    /**
+     * State enum
+     *
+     * Defines the states and where each event leads; the behavior is attached to the transitions.
+     */
+    public enum State {
+        STATE_A {
+            @Override
+            State next(Event event) {
+                return STATE_B;
+            }
+        },
+        STATE_B {
+            @Override
+            State next(Event event) {
+                return STATE_A;
+            }
+        };
+
+        abstract State next(Event event);
+    }
+
+    // Compiled once, shared by every context
+    static final StateMachine<State, Event> MACHINE = StateMachine.builder(State.class, Event.class)
+            .initial(State.STATE_A)
+            .transitions((state, event) -> state.next(event))
+            .action(State.STATE_A, Event.REQUEST, (from, event, to) -> System.out.println("State A: Handling request."))
+            .action(State.STATE_B, Event.REQUEST, (from, event, to) -> System.out.println("State B: Handling request."))
+            .build();
+
+    /**
+     * Context class
+     *
+     * Holds the current state of one running machine.
+     */
+    public static class Context {
+        private final StateMachine<State, Event>.Instance machine = MACHINE.start();
+
+        public State getState() {
+            return machine.state();
+        }
+
+        public void request() {
+            machine.fire(Event.REQUEST);
+        }
+    }
+
+    public static void main(String[] args) {
+        // Create a context object
+        Context context = new Context();
+
+        // Request to change state multiple times
+        context.request(); // Transition from STATE_A to STATE_B
+        context.request(); // Transition from STATE_B to STATE_A
+        context.request(); // Transition from STATE_A to STATE_B
+        context.request(); // Transition from STATE_B to STATE_A
+    }
+}